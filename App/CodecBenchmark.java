@@ -0,0 +1,80 @@
+package App;
+
+import Model.*;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Benchmark comparing Java serialization with the binary data file format
+ */
+public class CodecBenchmark {
+    private static final int STUDENT_COUNT = 100_000;
+    private static final int REGISTRATIONS_PER_STUDENT = 5;
+    private static final int RUNS = 3;
+
+    public static void main(String[] args) throws Exception {
+        int studentCount = args.length > 0 ? Integer.parseInt(args[0]) : STUDENT_COUNT;
+        System.out.println("Generating " + studentCount + " students...");
+
+        List<Student> students = Fixtures.students(0, studentCount);
+        List<RegisteredSubject> registrations = Fixtures.registrations(students,
+                Fixtures.subjects(1, REGISTRATIONS_PER_STUDENT, 0), REGISTRATIONS_PER_STUDENT);
+
+        File dir = Files.createTempDirectory("codec-benchmark").toFile();
+        try {
+            System.out.printf("%-15s %-14s %10s %10s %12s%n", "File", "Format", "Save ms", "Load ms", "Size bytes");
+            compare("students", students, DataCodec.STUDENTS, dir);
+            compare("registrations", registrations, DataCodec.REGISTRATIONS, dir);
+        } finally {
+            for (File file : dir.listFiles()) {
+                file.delete();
+            }
+            dir.delete();
+        }
+    }
+
+    // Time both formats on the same list and print one row for each
+    private static <T> void compare(String name, List<T> records, DataCodec.RecordCodec<T> codec, File dir)
+            throws Exception {
+        File serializedFile = new File(dir, name + ".ser");
+        File binaryFile = new File(dir, name + ".bin");
+
+        long serializedSave = Long.MAX_VALUE;
+        long serializedLoad = Long.MAX_VALUE;
+        long binarySave = Long.MAX_VALUE;
+        long binaryLoad = Long.MAX_VALUE;
+
+        // Best of several runs, so the first run also warms up the JIT
+        for (int run = 0; run < RUNS; run++) {
+            long start = System.nanoTime();
+            try (ObjectOutputStream oos = new ObjectOutputStream(
+                    new BufferedOutputStream(new FileOutputStream(serializedFile)))) {
+                oos.writeObject(new ArrayList<>(records));
+            }
+            serializedSave = Math.min(serializedSave, System.nanoTime() - start);
+
+            start = System.nanoTime();
+            try (ObjectInputStream ois = new ObjectInputStream(
+                    new BufferedInputStream(new FileInputStream(serializedFile)))) {
+                ois.readObject();
+            }
+            serializedLoad = Math.min(serializedLoad, System.nanoTime() - start);
+
+            start = System.nanoTime();
+            DataCodec.save(records, binaryFile, codec);
+            binarySave = Math.min(binarySave, System.nanoTime() - start);
+
+            start = System.nanoTime();
+            DataCodec.load(binaryFile, codec);
+            binaryLoad = Math.min(binaryLoad, System.nanoTime() - start);
+        }
+
+        System.out.printf("%-15s %-14s %10.1f %10.1f %12d%n", name, "serialization",
+                serializedSave / 1e6, serializedLoad / 1e6, serializedFile.length());
+        System.out.printf("%-15s %-14s %10.1f %10.1f %12d%n", name, "binary",
+                binarySave / 1e6, binaryLoad / 1e6, binaryFile.length());
+    }
+}
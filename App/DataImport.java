@@ -0,0 +1,50 @@
+package App;
+
+import Controller.ImportController;
+import Controller.ImportController.ImportReport;
+import Model.DataManager;
+
+import java.io.File;
+
+/**
+ * Command line tool importing students, subjects or registrations from a CSV file
+ * and printing the rows that were rejected and the throughput.
+ * Usage: DataImport students|subjects|registrations file.csv
+ */
+public class DataImport {
+    public static void main(String[] args) throws Exception {
+        if (args.length != 2) {
+            System.err.println("Usage: DataImport students|subjects|registrations file.csv");
+            System.exit(2);
+        }
+
+        ImportController importController = new ImportController();
+        File file = new File(args[1]);
+        ImportReport report;
+        switch (args[0]) {
+            case "students":
+                report = importController.importStudents(file);
+                break;
+            case "subjects":
+                report = importController.importSubjects(file);
+                break;
+            case "registrations":
+                report = importController.importRegistrations(file);
+                break;
+            default:
+                System.err.println("Unknown record type: " + args[0]);
+                System.exit(2);
+                return;
+        }
+
+        // Write the snapshots now rather than leaving the import in the journal
+        DataManager.getInstance().saveData();
+
+        report.getErrors().forEach(System.out::println);
+        if (report.getErrorCount() > report.getErrors().size()) {
+            System.out.println("... and " + (report.getErrorCount() - report.getErrors().size()) + " more errors");
+        }
+        System.out.println(report);
+        System.exit(0);
+    }
+}
@@ -0,0 +1,63 @@
+package App;
+
+import Model.*;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Generated students, subjects and registrations for the benchmarks and the stress test.
+ * The same arguments always give the same records.
+ */
+public final class Fixtures {
+    private static final String[] SCHOOLS = {"Bangkok High School", "Chiang Mai High School", "Phuket High School",
+                                             "Khon Kaen High School", "Songkhla High School"};
+    private static final String[] CURRICULUMS = {"10000001", "20000001"};
+    private static final Grade[] GRADES = Grade.values();
+
+    private Fixtures() {
+    }
+
+    // Create students with IDs 69000000 + first onwards, spread over a handful of schools and curriculums
+    public static List<Student> students(int first, int count) {
+        Random random = new Random(42);
+        List<Student> students = new ArrayList<>(count);
+
+        for (int n = first; n < first + count; n++) {
+            boolean male = random.nextBoolean();
+            students.add(new Student(String.format("69%06d", n), male ? "Mr." : "Ms.", "First" + n, "Last" + n,
+                    LocalDate.of(2005 + random.nextInt(3), 1 + random.nextInt(12), 1 + random.nextInt(28)),
+                    SCHOOLS[random.nextInt(SCHOOLS.length)], "student" + n + "@kmitl.ac.th",
+                    CURRICULUMS[random.nextInt(CURRICULUMS.length)], "password", false));
+        }
+        return students;
+    }
+
+    // Create subjects with IDs 05500000 + first onwards; every fourth one has limitedCapacity seats,
+    // the others are unlimited
+    public static List<Subject> subjects(int first, int count, int limitedCapacity) {
+        List<Subject> subjects = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int capacity = i % 4 == 0 ? limitedCapacity : 0;
+            subjects.add(new Subject(String.format("055%05d", first + i), "Subject " + (first + i), 3,
+                    "Dr. Instructor", "", capacity));
+        }
+        return subjects;
+    }
+
+    // Register every student for the first perStudent subjects, most of them graded
+    public static List<RegisteredSubject> registrations(List<Student> students, List<Subject> subjects, int perStudent) {
+        Random random = new Random(7);
+        List<RegisteredSubject> registrations = new ArrayList<>(students.size() * perStudent);
+
+        for (Student student : students) {
+            for (int i = 0; i < perStudent; i++) {
+                registrations.add(new RegisteredSubject(student.getStudentId(), subjects.get(i).getSubjectId(),
+                        GRADES[random.nextInt(GRADES.length)].getCode()));
+            }
+        }
+        return registrations;
+    }
+}
@@ -0,0 +1,74 @@
+package App;
+
+import Model.*;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reports the heap held by DataManager after it has loaded a large dataset, with low-cardinality
+ * strings interned and the indexes built, next to the heap of the same records as decoded from the files.
+ * Uses a temporary data directory so the real data files are not touched.
+ */
+public class HeapFootprintReport {
+    private static final int STUDENT_COUNT = 200_000;
+    private static final int REGISTRATIONS_PER_STUDENT = 5;
+
+    public static void main(String[] args) throws Exception {
+        int studentCount = args.length > 0 ? Integer.parseInt(args[0]) : STUDENT_COUNT;
+        System.out.println("Generating " + studentCount + " students...");
+
+        File dir = Files.createTempDirectory("srs-heap").toFile();
+        writeDataFiles(dir, studentCount);
+
+        long baseline = usedHeap();
+        List<List<?>> decoded = new ArrayList<>();
+        decoded.add(DataCodec.load(new File(dir, "students.dat"), DataCodec.STUDENTS));
+        decoded.add(DataCodec.load(new File(dir, "subjects.dat"), DataCodec.SUBJECTS));
+        decoded.add(DataCodec.load(new File(dir, "registrations.dat"), DataCodec.REGISTRATIONS));
+        long records = usedHeap() - baseline;
+        decoded = null;
+
+        // DataManager reads its data directory when the class is initialized
+        System.setProperty("srs.dataDir", dir.getPath());
+        baseline = usedHeap();
+        DataManager dataManager = DataManager.getInstance();
+        dataManager.saveData(); // Waits for loading; nothing has changed, so nothing is written
+        long loaded = usedHeap() - baseline;
+
+        int registrations = studentCount * REGISTRATIONS_PER_STUDENT;
+        System.out.printf("Records:          %d students, %d registrations%n", studentCount, registrations);
+        System.out.printf("Decoded records:  %.1f MB%n", records / 1048576.0);
+        System.out.printf("DataManager:      %.1f MB (%.0f bytes per student with registrations)%n",
+                loaded / 1048576.0, (double) loaded / studentCount);
+        System.out.printf("Pooled strings:   %d%n", StringPool.size());
+
+        for (File file : dir.listFiles()) {
+            file.delete();
+        }
+        dir.delete();
+        System.exit(0);
+    }
+
+    // Write the data files DataManager loads at startup
+    private static void writeDataFiles(File dir, int studentCount) throws Exception {
+        List<Student> students = Fixtures.students(0, studentCount);
+        List<Subject> subjects = Fixtures.subjects(1, REGISTRATIONS_PER_STUDENT, 0);
+        DataCodec.save(students, new File(dir, "students.dat"), DataCodec.STUDENTS);
+        DataCodec.save(subjects, new File(dir, "subjects.dat"), DataCodec.SUBJECTS);
+        DataCodec.save(new ArrayList<>(), new File(dir, "curriculum.dat"), DataCodec.CURRICULUMS);
+        DataCodec.save(Fixtures.registrations(students, subjects, REGISTRATIONS_PER_STUDENT),
+                new File(dir, "registrations.dat"), DataCodec.REGISTRATIONS);
+    }
+
+    // Heap in use after a full collection
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,204 @@
+package App;
+
+import Model.*;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Stress test driving DataManager from many threads, reporting throughput and checking consistency
+ * and that no subject is oversold.
+ * Uses a temporary data directory so the real data files are not touched.
+ */
+public class StressTest {
+    private static final int STUDENT_COUNT = 2_000;
+    private static final int SUBJECT_COUNT = 40;
+    private static final int OPERATIONS_PER_RUN = 400_000;
+    // Percentage of operations that are queries, the rest are single and batch registrations and grade changes
+    private static final int READ_PERCENT = 80;
+    // Every fourth subject has this many seats, the others are unlimited
+    private static final int LIMITED_CAPACITY = 100;
+
+    private static final String[] GRADES = {"A", "B+", "B", "C+", "C", "D+", "D", "F", null};
+
+    private static final List<String> studentIds = new ArrayList<>();
+    private static final List<String> subjectIds = new ArrayList<>();
+    // Every (student, subject) pair that was registered successfully
+    private static final Set<String> registered = ConcurrentHashMap.newKeySet();
+    private static final AtomicLong rejectedFull = new AtomicLong();
+
+    public static void main(String[] args) throws Exception {
+        int maxThreads = args.length > 0 ? Integer.parseInt(args[0]) : Runtime.getRuntime().availableProcessors();
+
+        File dir = Files.createTempDirectory("srs-stress").toFile();
+        System.setProperty("srs.dataDir", dir.getPath());
+        DataManager dataManager = DataManager.getInstance();
+        createData(dataManager);
+
+        // Throughput can only grow with the thread count up to the number of processors
+        System.out.println("Available processors: " + Runtime.getRuntime().availableProcessors());
+        System.out.printf("%-8s %12s %14s%n", "Threads", "Time ms", "Ops/second");
+        for (int threads = 1; threads <= maxThreads; threads *= 2) {
+            run(dataManager, threads);
+        }
+
+        dataManager.flush();
+        List<String> problems = check(dataManager);
+        if (problems.isEmpty()) {
+            System.out.println("Consistency check passed: " + registered.size() + " registrations, "
+                    + rejectedFull.get() + " rejected as full");
+        } else {
+            problems.forEach(System.out::println);
+            System.out.println("Consistency check FAILED: " + problems.size() + " problems");
+        }
+
+        for (File file : dir.listFiles()) {
+            file.delete();
+        }
+        dir.delete();
+        System.exit(problems.isEmpty() ? 0 : 1);
+    }
+
+    // Add students and subjects with IDs that cannot clash with the sample data
+    private static void createData(DataManager dataManager) {
+        for (Subject subject : Fixtures.subjects(10_000, SUBJECT_COUNT, LIMITED_CAPACITY)) {
+            dataManager.addSubject(subject);
+            subjectIds.add(subject.getSubjectId());
+        }
+        for (Student student : Fixtures.students(100_000, STUDENT_COUNT)) {
+            dataManager.addStudent(student);
+            studentIds.add(student.getStudentId());
+        }
+    }
+
+    // Run a fixed number of mixed operations split over the given number of threads
+    private static void run(DataManager dataManager, int threads) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicLong sink = new AtomicLong();
+        List<Future<?>> futures = new ArrayList<>();
+
+        for (int t = 0; t < threads; t++) {
+            long seed = threads * 1000L + t;
+            int operations = OPERATIONS_PER_RUN / threads;
+            futures.add(pool.submit(() -> {
+                start.await();
+                Random random = new Random(seed);
+                for (int i = 0; i < operations; i++) {
+                    sink.addAndGet(operate(dataManager, random));
+                }
+                return null;
+            }));
+        }
+
+        long begin = System.nanoTime();
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        long elapsed = System.nanoTime() - begin;
+        pool.shutdown();
+
+        System.out.printf("%-8d %12.1f %14.0f%n", threads, elapsed / 1e6, OPERATIONS_PER_RUN / (elapsed / 1e9));
+    }
+
+    // One random operation; returns a number derived from query results so they are not optimized away
+    private static int operate(DataManager dataManager, Random random) {
+        String studentId = studentIds.get(random.nextInt(studentIds.size()));
+        String subjectId = subjectIds.get(random.nextInt(subjectIds.size()));
+
+        if (random.nextInt(100) >= READ_PERCENT) {
+            int choice = random.nextInt(4);
+            if (choice == 0) {
+                record(studentId, subjectId, dataManager.registerSubject(studentId, subjectId));
+            } else if (choice == 1) {
+                List<String> batch = Arrays.asList(subjectId, subjectIds.get(random.nextInt(subjectIds.size())),
+                        subjectIds.get(random.nextInt(subjectIds.size())));
+                dataManager.registerSubjects(studentId, batch).forEach((id, result) -> record(studentId, id, result));
+            } else if (choice == 2) {
+                dataManager.setGrade(studentId, subjectId, GRADES[random.nextInt(GRADES.length)]);
+            } else {
+                Map<String, String> grades = new HashMap<>();
+                for (int i = 0; i < 3; i++) {
+                    grades.put(studentIds.get(random.nextInt(studentIds.size())), GRADES[random.nextInt(GRADES.length)]);
+                }
+                dataManager.setGrades(subjectId, grades);
+            }
+            return 0;
+        }
+
+        switch (random.nextInt(5)) {
+            case 0:
+                return dataManager.getRegisteredSubjectsForStudent(studentId).size();
+            case 1:
+                return dataManager.getRegistrationCountForSubject(subjectId);
+            case 2:
+                return dataManager.hasCompletedPrerequisite(studentId, subjectId) ? 1 : 0;
+            case 3:
+                return dataManager.isRegistered(studentId, subjectId) ? 1 : 0;
+            default:
+                return dataManager.getStudentById(studentId) != null ? 1 : 0;
+        }
+    }
+
+    // Remember a successful registration and count subjects that were full
+    private static void record(String studentId, String subjectId, RegistrationResult result) {
+        if (result == RegistrationResult.SUCCESS && !registered.add(studentId + subjectId)) {
+            throw new IllegalStateException("Registered twice: " + studentId + " " + subjectId);
+        } else if (result == RegistrationResult.FULL) {
+            rejectedFull.incrementAndGet();
+        }
+    }
+
+    // Check that every index agrees with the registrations that were made
+    private static List<String> check(DataManager dataManager) {
+        List<String> problems = new ArrayList<>();
+        Map<String, Integer> countsBySubject = new HashMap<>();
+        int total = 0;
+
+        for (String studentId : studentIds) {
+            Set<String> seen = new HashSet<>();
+            for (RegisteredSubject reg : dataManager.getRegisteredSubjectsForStudent(studentId)) {
+                String subjectId = reg.getSubjectId();
+                if (!seen.add(subjectId)) {
+                    problems.add("Duplicate registration: " + studentId + " " + subjectId);
+                }
+                if (!registered.contains(studentId + subjectId)) {
+                    problems.add("Unexpected registration: " + studentId + " " + subjectId);
+                }
+                if (dataManager.hasCompletedPrerequisite(studentId, subjectId) != reg.isGraded()) {
+                    problems.add("Completed flag out of date: " + studentId + " " + subjectId);
+                }
+                countsBySubject.merge(subjectId, 1, Integer::sum);
+                total++;
+            }
+        }
+
+        if (total != registered.size()) {
+            problems.add("Expected " + registered.size() + " registrations but found " + total);
+        }
+        for (String pair : registered) {
+            String studentId = pair.substring(0, 8);
+            String subjectId = pair.substring(8);
+            if (!dataManager.isRegistered(studentId, subjectId)) {
+                problems.add("Missing registration: " + studentId + " " + subjectId);
+            }
+        }
+        for (String subjectId : subjectIds) {
+            int expected = countsBySubject.getOrDefault(subjectId, 0);
+            if (dataManager.getRegistrationCountForSubject(subjectId) != expected
+                    || dataManager.getStudentsForSubject(subjectId).size() != expected
+                    || dataManager.getSeatsTaken(subjectId) != expected) {
+                problems.add("Wrong count for subject " + subjectId);
+            }
+            int capacity = dataManager.getSubjectById(subjectId).getCapacity();
+            if (capacity > 0 && expected > capacity) {
+                problems.add("Subject " + subjectId + " oversold: " + expected + " of " + capacity);
+            }
+        }
+        return problems;
+    }
+}
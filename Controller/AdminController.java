@@ -4,9 +4,9 @@ import Model.*;
 import util.SessionManager;
 
 import java.util.ArrayList;
-import java.util.Collections;
-import java.util.Comparator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Controller for handling admin-related operations
@@ -39,6 +39,17 @@ public class AdminController {
         return result;
     }
     
+    // Find the students matching a school and search text in a sort order, to be read a page at a time.
+    // A null school means all schools; admin users are left out.
+    public StudentCursor queryStudents(String school, String searchText, StudentSort sort) {
+        return queryStudents(school, searchText, sort, false);
+    }
+    
+    // Like queryStudents, optionally in the reverse of the sort order
+    public StudentCursor queryStudents(String school, String searchText, StudentSort sort, boolean descending) {
+        return dataManager.queryStudents(new StudentQuery(school, searchText, sort, descending));
+    }
+    
     // Get students filtered by school
     public List<Student> getStudentsBySchool(String school) {
         return dataManager.getStudentsBySchool(school);
@@ -51,26 +62,22 @@ public class AdminController {
     
     // Sort students by name (ascending)
     public List<Student> sortStudentsByName(List<Student> students) {
-        List<Student> sorted = new ArrayList<>(students);
-        Collections.sort(sorted, new Comparator<Student>() {
-            @Override
-            public int compare(Student s1, Student s2) {
-                return s1.getFullName().compareTo(s2.getFullName());
-            }
-        });
-        return sorted;
+        return sortStudents(students, StudentSort.NAME, false);
     }
     
     // Sort students by age (ascending)
     public List<Student> sortStudentsByAge(List<Student> students) {
-        List<Student> sorted = new ArrayList<>(students);
-        Collections.sort(sorted, new Comparator<Student>() {
-            @Override
-            public int compare(Student s1, Student s2) {
-                return Integer.compare(s1.getAge(), s2.getAge());
-            }
-        });
-        return sorted;
+        return sortStudents(students, StudentSort.AGE, false);
+    }
+    
+    // Sort students by school, then by name
+    public List<Student> sortStudentsBySchool(List<Student> students) {
+        return sortStudents(students, StudentSort.SCHOOL_NAME, false);
+    }
+    
+    // Sort students in a sort order or its reverse
+    public List<Student> sortStudents(List<Student> students, StudentSort sort, boolean descending) {
+        return dataManager.sortStudents(students, sort, descending);
     }
     
     // Get all subjects
@@ -92,6 +99,27 @@ public class AdminController {
         dataManager.setGrade(studentId, subjectId, grade);
     }
     
+    // Set grades for many students in a subject at once.
+    // Returns an error message for each student whose grade was not set, empty if all were set.
+    public Map<String, String> setGrades(String subjectId, Map<String, String> gradesByStudent) {
+        Map<String, String> errors = new LinkedHashMap<>();
+        Map<String, String> validGrades = new LinkedHashMap<>();
+        
+        // Validate everything before changing anything
+        for (Map.Entry<String, String> entry : gradesByStudent.entrySet()) {
+            if (RegisteredSubject.isValidGrade(entry.getValue())) {
+                validGrades.put(entry.getKey(), entry.getValue());
+            } else {
+                errors.put(entry.getKey(), "Invalid grade: " + entry.getValue());
+            }
+        }
+        
+        for (String studentId : dataManager.setGrades(subjectId, validGrades)) {
+            errors.put(studentId, "Not registered for this subject");
+        }
+        return errors;
+    }
+    
     // Get the registration count for a subject
     public int getRegistrationCountForSubject(String subjectId) {
         return dataManager.getRegistrationCountForSubject(subjectId);
@@ -99,18 +127,14 @@ public class AdminController {
     
     // Search students by name or ID
     public List<Student> searchStudents(String query) {
-        List<Student> allStudents = getAllStudents();
-        List<Student> result = new ArrayList<>();
-        
-        if (query == null || query.isEmpty()) {
-            return allStudents;
+        if (query == null || query.trim().isEmpty()) {
+            return getAllStudents();
         }
         
-        String lowerQuery = query.toLowerCase();
-        
-        for (Student student : allStudents) {
-            if (student.getStudentId().contains(lowerQuery) ||
-                student.getFullName().toLowerCase().contains(lowerQuery)) {
+        // Every word must occur in the ID or name; best matches come first
+        List<Student> result = new ArrayList<>();
+        for (Student student : dataManager.searchStudents(query)) {
+            if (!student.isAdmin()) {
                 result.add(student);
             }
         }
@@ -131,7 +155,7 @@ public class AdminController {
                     subject.getSubjectName(),
                     subject.getCredits(),
                     subject.getInstructor(),
-                    reg.getGrade() == null || reg.getGrade().isEmpty() ? "Not graded" : reg.getGrade()
+                    reg.getGradeValue().getDisplayName()
                 };
                 result.add(details);
             }
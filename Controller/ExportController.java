@@ -0,0 +1,181 @@
+package Controller;
+
+import Model.*;
+import util.Csv;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Controller for exporting every student's registrations with subject details and grades.
+ * Rows are copied from the data in batches of a few thousand and written out as they are
+ * visited, so memory use follows the batch size and the number of partitions, not the amount of data.
+ */
+public class ExportController {
+    private static final int BUFFER_SIZE = 1 << 16;
+    private static final String[] COLUMNS = {
+        "studentId", "studentName", "subjectId", "subjectName", "credits", "instructor", "grade"
+    };
+    // The only column written as a number in JSON
+    private static final int CREDITS_COLUMN = 4;
+    
+    /**
+     * Output formats, with the file extension used for each
+     */
+    public enum Format {
+        CSV("csv"),
+        JSON_LINES("jsonl");
+        
+        private final String extension;
+        
+        Format(String extension) {
+            this.extension = extension;
+        }
+        
+        public String getExtension() {
+            return extension;
+        }
+    }
+    
+    private DataManager dataManager;
+    
+    public ExportController() {
+        dataManager = DataManager.getInstance();
+    }
+    
+    // Export all registrations to a file and return the number of rows written.
+    // With more than one partition the students are split over the files name-1.ext to name-n.ext,
+    // which are written in parallel. Each student's registrations are written as they were at one moment;
+    // changes made while the export runs may or may not be included.
+    public long exportRegistrations(File target, Format format, int partitions) throws IOException {
+        List<File> files = partitionFiles(target, format, partitions);
+        List<PartitionWriter> writers = new ArrayList<>();
+        try {
+            for (File file : files) {
+                writers.add(new PartitionWriter(file, format));
+            }
+            dataManager.forEachRegistration(writers);
+        } finally {
+            closeAll(writers);
+        }
+        
+        long rows = 0;
+        for (PartitionWriter writer : writers) {
+            rows += writer.rows;
+        }
+        return rows;
+    }
+    
+    // Close every writer, throwing the first error once all of them were closed
+    private static void closeAll(List<PartitionWriter> writers) throws IOException {
+        IOException error = null;
+        for (PartitionWriter writer : writers) {
+            try {
+                writer.close();
+            } catch (IOException e) {
+                if (error == null) {
+                    error = e;
+                }
+            }
+        }
+        if (error != null) {
+            throw error;
+        }
+    }
+    
+    // Files written by an export: the target itself, or one numbered file per partition
+    public List<File> partitionFiles(File target, Format format, int partitions) {
+        List<File> files = new ArrayList<>();
+        if (partitions <= 1) {
+            files.add(target);
+            return files;
+        }
+        
+        String name = target.getName();
+        int dot = name.lastIndexOf('.');
+        String baseName = dot > 0 ? name.substring(0, dot) : name;
+        for (int i = 1; i <= partitions; i++) {
+            files.add(new File(target.getAbsoluteFile().getParentFile(),
+                    baseName + "-" + i + "." + format.getExtension()));
+        }
+        return files;
+    }
+    
+    /**
+     * Writes the rows of one partition to its own buffered file
+     */
+    private static class PartitionWriter implements DataManager.RegistrationVisitor {
+        private final Writer out;
+        private final Format format;
+        private long rows;
+        
+        PartitionWriter(File file, Format format) throws IOException {
+            this.out = new BufferedWriter(new OutputStreamWriter(
+                    Files.newOutputStream(file.toPath()), StandardCharsets.UTF_8), BUFFER_SIZE);
+            this.format = format;
+            if (format == Format.CSV) {
+                Csv.writeLine(out, COLUMNS);
+            }
+        }
+        
+        @Override
+        public void visit(Student student, Subject subject, RegisteredSubject registration) throws IOException {
+            String[] values = {
+                student.getStudentId(),
+                student.getFullName(),
+                registration.getSubjectId(),
+                subject != null ? subject.getSubjectName() : null,
+                subject != null ? Integer.toString(subject.getCredits()) : null,
+                subject != null ? subject.getInstructor() : null,
+                registration.getGrade()
+            };
+            
+            if (format == Format.CSV) {
+                Csv.writeLine(out, values);
+            } else {
+                out.write('{');
+                for (int i = 0; i < values.length; i++) {
+                    if (i > 0) {
+                        out.write(',');
+                    }
+                    out.write('"');
+                    out.write(COLUMNS[i]);
+                    out.write("\":");
+                    if (values[i] == null) {
+                        out.write("null");
+                    } else if (i == CREDITS_COLUMN) {
+                        out.write(values[i]);
+                    } else {
+                        out.write('"');
+                        writeJsonString(values[i]);
+                        out.write('"');
+                    }
+                }
+                out.write("}\n");
+            }
+            rows++;
+        }
+        
+        // Write a string with the characters JSON does not allow escaped
+        private void writeJsonString(String value) throws IOException {
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                if (c == '"' || c == '\\') {
+                    out.write('\\');
+                    out.write(c);
+                } else if (c < 0x20) {
+                    out.write(String.format("\\u%04x", (int) c));
+                } else {
+                    out.write(c);
+                }
+            }
+        }
+        
+        void close() throws IOException {
+            out.close();
+        }
+    }
+}
\ No newline at end of file
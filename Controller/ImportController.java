@@ -0,0 +1,374 @@
+package Controller;
+
+import Model.*;
+import util.Csv;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.*;
+import java.util.stream.IntStream;
+
+/**
+ * Controller for importing students, subjects and registrations from CSV files.
+ * A file is read a chunk of records at a time and each chunk is validated in parallel,
+ * so only the accepted records are kept. They are added together at the end and
+ * persisted once. The first line of every file is a header and is skipped.
+ */
+public class ImportController {
+    // Records read and validated together
+    private static final int CHUNK_SIZE = 4096;
+    // Errors kept for the report; any further errors are only counted
+    private static final int MAX_REPORTED_ERRORS = 1000;
+    
+    private DataManager dataManager;
+    private ValidationController validationController;
+    
+    public ImportController() {
+        dataManager = DataManager.getInstance();
+        validationController = new ValidationController();
+    }
+    
+    /**
+     * Outcome of an import: row counts, errors by line number and throughput
+     */
+    public static class ImportReport {
+        private int rowsRead;
+        private int rowsImported;
+        private int errorCount;
+        private final List<String> errors = new ArrayList<>();
+        private long elapsedNanos;
+        
+        public int getRowsRead() {
+            return rowsRead;
+        }
+        
+        public int getRowsImported() {
+            return rowsImported;
+        }
+        
+        public int getErrorCount() {
+            return errorCount;
+        }
+        
+        // Errors as "Line n: reason", at most MAX_REPORTED_ERRORS of them
+        public List<String> getErrors() {
+            return Collections.unmodifiableList(errors);
+        }
+        
+        public long getElapsedMillis() {
+            return elapsedNanos / 1_000_000;
+        }
+        
+        public double getRowsPerSecond() {
+            return elapsedNanos == 0 ? 0 : rowsRead / (elapsedNanos / 1e9);
+        }
+        
+        private void addError(int line, String message) {
+            errorCount++;
+            if (errors.size() < MAX_REPORTED_ERRORS) {
+                errors.add("Line " + line + ": " + message);
+            }
+        }
+        
+        @Override
+        public String toString() {
+            return String.format("Imported %d of %d rows in %d ms (%.0f rows/second), %d errors",
+                    rowsImported, rowsRead, getElapsedMillis(), getRowsPerSecond(), errorCount);
+        }
+    }
+    
+    // Parses and validates one row on its own, throwing IllegalArgumentException with the reason if it is invalid
+    private interface RowParser<T> {
+        T parse(String[] fields);
+    }
+    
+    // Checks a valid row against the rows accepted before it, returns the reason it is rejected or null
+    private interface RowChecker<T> {
+        String check(T record);
+    }
+    
+    // A parsed row or the reason it could not be parsed
+    private static class ParsedRow<T> {
+        T record;
+        String error;
+    }
+    
+    // Import students: studentId,title,firstName,lastName,birthDate (yyyy-MM-dd),school,email,curriculumId,password
+    public ImportReport importStudents(File file) throws IOException {
+        long start = System.nanoTime();
+        ImportReport report = new ImportReport();
+        Set<String> ids = new HashSet<>();
+        Set<String> emails = new HashSet<>();
+        
+        List<Student> accepted = readRows(file, report, null, this::parseStudent, student -> {
+            if (!ids.add(student.getStudentId())) {
+                return "Duplicate student ID " + student.getStudentId();
+            }
+            if (!emails.add(student.getEmail())) {
+                ids.remove(student.getStudentId());
+                return "Duplicate email " + student.getEmail();
+            }
+            return null;
+        });
+        
+        dataManager.addStudents(accepted);
+        report.rowsImported = accepted.size();
+        report.elapsedNanos = System.nanoTime() - start;
+        return report;
+    }
+    
+    // Import subjects: subjectId,subjectName,credits,instructor,prerequisiteId[,capacity]
+    public ImportReport importSubjects(File file) throws IOException {
+        long start = System.nanoTime();
+        ImportReport report = new ImportReport();
+        Set<String> ids = new HashSet<>();
+        
+        List<Subject> accepted = readRows(file, report, null, this::parseSubject, subject -> {
+            // A prerequisite may be an existing subject or one earlier in the file
+            if (subject.hasPrerequisite() && !ids.contains(subject.getPrerequisiteId())
+                    && dataManager.getSubjectById(subject.getPrerequisiteId()) == null) {
+                return "Unknown prerequisite " + subject.getPrerequisiteId();
+            }
+            if (!ids.add(subject.getSubjectId())) {
+                return "Duplicate subject ID " + subject.getSubjectId();
+            }
+            return null;
+        });
+        
+        dataManager.addSubjects(accepted);
+        report.rowsImported = accepted.size();
+        report.elapsedNanos = System.nanoTime() - start;
+        return report;
+    }
+    
+    // Import registrations: studentId,subjectId[,grade]. Prerequisites are not checked,
+    // so past results can be imported in any order, but subject capacities are enforced.
+    public ImportReport importRegistrations(File file) throws IOException {
+        long start = System.nanoTime();
+        ImportReport report = new ImportReport();
+        Set<String> pairs = new HashSet<>();
+        List<Integer> lines = new ArrayList<>();
+        
+        List<RegisteredSubject> accepted = readRows(file, report, lines, this::parseRegistration, reg ->
+                pairs.add(reg.getStudentId() + reg.getSubjectId()) ? null
+                        : "Duplicate registration of " + reg.getStudentId() + " for " + reg.getSubjectId());
+        
+        // Students and subjects are checked when the registrations are added
+        List<RegistrationResult> results = dataManager.addRegistrations(accepted);
+        for (int i = 0; i < results.size(); i++) {
+            switch (results.get(i)) {
+                case SUCCESS:
+                    report.rowsImported++;
+                    break;
+                case NOT_FOUND:
+                    report.addError(lines.get(i), "Unknown student or subject");
+                    break;
+                case ALREADY_REGISTERED:
+                    report.addError(lines.get(i), "Already registered");
+                    break;
+                case FULL:
+                    report.addError(lines.get(i), "Subject " + accepted.get(i).getSubjectId() + " is full");
+                    break;
+                default:
+                    report.addError(lines.get(i), results.get(i).name());
+            }
+        }
+        report.elapsedNanos = System.nanoTime() - start;
+        return report;
+    }
+    
+    // Read a file a chunk at a time, parsing each chunk in parallel and checking the rows in order.
+    // Returns the accepted records; their line numbers are added to acceptedLines if it is given.
+    // A record with a quoted line break spans several lines and is reported at its first one.
+    private <T> List<T> readRows(File file, ImportReport report, List<Integer> acceptedLines,
+                                 RowParser<T> parser, RowChecker<T> checker) throws IOException {
+        List<T> accepted = new ArrayList<>();
+        List<String> chunk = new ArrayList<>(CHUNK_SIZE);
+        List<Integer> chunkLines = new ArrayList<>(CHUNK_SIZE);
+        int nextLine = 1;
+        
+        try (BufferedReader reader = Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8)) {
+            String header = Csv.readRecord(reader);
+            if (header != null) {
+                nextLine += lineCount(header);
+            }
+            
+            String record;
+            do {
+                record = Csv.readRecord(reader);
+                if (record != null) {
+                    chunk.add(record);
+                    chunkLines.add(nextLine);
+                    nextLine += lineCount(record);
+                }
+                if (chunk.size() == CHUNK_SIZE || (record == null && !chunk.isEmpty())) {
+                    List<ParsedRow<T>> rows = parseChunk(chunk, parser);
+                    for (int i = 0; i < rows.size(); i++) {
+                        ParsedRow<T> row = rows.get(i);
+                        if (row == null) {
+                            continue; // Blank line
+                        }
+                        
+                        report.rowsRead++;
+                        String error = row.error != null ? row.error : checker.check(row.record);
+                        if (error != null) {
+                            report.addError(chunkLines.get(i), error);
+                        } else {
+                            accepted.add(row.record);
+                            if (acceptedLines != null) {
+                                acceptedLines.add(chunkLines.get(i));
+                            }
+                        }
+                    }
+                    chunk.clear();
+                    chunkLines.clear();
+                }
+            } while (record != null);
+        }
+        return accepted;
+    }
+    
+    // Number of lines a record was read from
+    private static int lineCount(String record) {
+        int lines = 1;
+        for (int i = record.indexOf('\n'); i >= 0; i = record.indexOf('\n', i + 1)) {
+            lines++;
+        }
+        return lines;
+    }
+    
+    // Parse every record of a chunk in parallel; blank lines give null
+    private <T> List<ParsedRow<T>> parseChunk(List<String> chunk, RowParser<T> parser) {
+        List<ParsedRow<T>> rows = new ArrayList<>(Collections.nCopies(chunk.size(), null));
+        IntStream.range(0, chunk.size()).parallel().forEach(i -> {
+            String record = chunk.get(i);
+            if (record.trim().isEmpty()) {
+                return;
+            }
+            
+            ParsedRow<T> row = new ParsedRow<>();
+            try {
+                row.record = parser.parse(Csv.parseLine(record));
+            } catch (IllegalArgumentException e) {
+                row.error = e.getMessage();
+            }
+            rows.set(i, row);
+        });
+        return rows;
+    }
+    
+    // Parse and validate a student row
+    private Student parseStudent(String[] fields) {
+        requireFields(fields, 9);
+        String studentId = fields[0];
+        if (!validationController.validateStudentId(studentId)) {
+            throw new IllegalArgumentException("Invalid student ID " + studentId);
+        }
+        if (fields[2].isEmpty() || fields[3].isEmpty()) {
+            throw new IllegalArgumentException("First and last name are required");
+        }
+        
+        LocalDate birthDate;
+        try {
+            birthDate = LocalDate.parse(fields[4]);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid birth date " + fields[4]);
+        }
+        
+        String email = fields[6];
+        if (email.indexOf('@') <= 0) {
+            throw new IllegalArgumentException("Invalid email " + email);
+        }
+        String curriculumId = fields[7];
+        if (!validationController.validateCurriculumId(curriculumId)) {
+            throw new IllegalArgumentException("Invalid curriculum ID " + curriculumId);
+        }
+        if (fields[8].isEmpty()) {
+            throw new IllegalArgumentException("Password is required");
+        }
+        
+        Student student = new Student(studentId, fields[1], fields[2], fields[3], birthDate,
+                fields[5], email, curriculumId, fields[8], false);
+        if (!validationController.validateStudentAge(student)) {
+            throw new IllegalArgumentException("Student must be at least 15 years old");
+        }
+        
+        // Checks against the existing data only read it, so they run in parallel too
+        if (dataManager.getCurriculumById(curriculumId) == null) {
+            throw new IllegalArgumentException("Unknown curriculum " + curriculumId);
+        }
+        if (dataManager.getStudentById(studentId) != null) {
+            throw new IllegalArgumentException("Student ID " + studentId + " already exists");
+        }
+        if (dataManager.getStudentByEmail(email) != null) {
+            throw new IllegalArgumentException("Email " + email + " is already in use");
+        }
+        return student;
+    }
+    
+    // Parse and validate a subject row
+    private Subject parseSubject(String[] fields) {
+        requireFields(fields, 5);
+        String subjectId = fields[0];
+        if (!validationController.validateSubjectId(subjectId)) {
+            throw new IllegalArgumentException("Invalid subject ID " + subjectId);
+        }
+        if (fields[1].isEmpty()) {
+            throw new IllegalArgumentException("Subject name is required");
+        }
+        
+        int credits = parseInt(fields[2], "credits");
+        if (!validationController.validateCredits(credits)) {
+            throw new IllegalArgumentException("Credits must be greater than 0");
+        }
+        String prerequisiteId = fields[4];
+        if (!prerequisiteId.isEmpty() && !validationController.validateSubjectId(prerequisiteId)) {
+            throw new IllegalArgumentException("Invalid prerequisite ID " + prerequisiteId);
+        }
+        int capacity = fields.length > 5 && !fields[5].isEmpty() ? parseInt(fields[5], "capacity") : 0;
+        if (capacity < 0) {
+            throw new IllegalArgumentException("Capacity cannot be negative");
+        }
+        
+        if (dataManager.getSubjectById(subjectId) != null) {
+            throw new IllegalArgumentException("Subject ID " + subjectId + " already exists");
+        }
+        return new Subject(subjectId, fields[1], credits, fields[3], prerequisiteId, capacity);
+    }
+    
+    // Parse and validate a registration row
+    private RegisteredSubject parseRegistration(String[] fields) {
+        requireFields(fields, 2);
+        if (!validationController.validateStudentId(fields[0])) {
+            throw new IllegalArgumentException("Invalid student ID " + fields[0]);
+        }
+        if (!validationController.validateSubjectId(fields[1])) {
+            throw new IllegalArgumentException("Invalid subject ID " + fields[1]);
+        }
+        
+        String grade = fields.length > 2 && !fields[2].isEmpty() ? fields[2] : null;
+        if (!validationController.validateGrade(grade)) {
+            throw new IllegalArgumentException("Invalid grade " + grade);
+        }
+        return new RegisteredSubject(fields[0], fields[1], grade);
+    }
+    
+    private static void requireFields(String[] fields, int count) {
+        if (fields.length < count) {
+            throw new IllegalArgumentException("Expected " + count + " fields but found " + fields.length);
+        }
+    }
+    
+    private static int parseInt(String value, String name) {
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid " + name + " " + value);
+        }
+    }
+}
\ No newline at end of file
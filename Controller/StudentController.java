@@ -3,8 +3,7 @@ package Controller;
 import Model.*;
 import util.SessionManager;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.util.*;
 
 /**
  * Controller for handling student-related operations
@@ -34,23 +33,62 @@ public class StudentController {
     }
     
     // Register a student for a subject
-    public boolean registerSubject(String studentId, String subjectId) {
+    public RegistrationResult registerSubject(String studentId, String subjectId) {
         // Check if the student can register for this subject
         Subject subject = dataManager.getSubjectById(subjectId);
         
         if (subject == null) {
-            return false;
+            return RegistrationResult.NOT_FOUND;
         }
         
         // Check prerequisite
         if (subject.hasPrerequisite() && 
             !dataManager.hasCompletedPrerequisite(studentId, subject.getPrerequisiteId())) {
-            return false;
+            return RegistrationResult.PREREQUISITE_NOT_MET;
+        }
+        
+        // Register the subject; this also checks for duplicates and free seats
+        return dataManager.registerSubject(studentId, subjectId);
+    }
+    
+    // Register a student for several subjects, returns the outcome for each subject in order
+    public Map<String, RegistrationResult> registerSubjects(String studentId, List<String> subjectIds) {
+        Map<String, RegistrationResult> rejected = new HashMap<>();
+        Map<String, Subject> found = new LinkedHashMap<>();
+        Set<String> prerequisiteIds = new HashSet<>();
+        
+        for (String subjectId : subjectIds) {
+            Subject subject = dataManager.getSubjectById(subjectId);
+            if (subject == null) {
+                rejected.put(subjectId, RegistrationResult.NOT_FOUND);
+            } else {
+                found.put(subjectId, subject);
+                if (subject.hasPrerequisite()) {
+                    prerequisiteIds.add(subject.getPrerequisiteId());
+                }
+            }
+        }
+        
+        // Check every prerequisite with one query
+        Set<String> completed = dataManager.getCompletedSubjects(studentId, prerequisiteIds);
+        List<String> eligible = new ArrayList<>();
+        for (Map.Entry<String, Subject> entry : found.entrySet()) {
+            Subject subject = entry.getValue();
+            if (subject.hasPrerequisite() && !completed.contains(subject.getPrerequisiteId())) {
+                rejected.put(entry.getKey(), RegistrationResult.PREREQUISITE_NOT_MET);
+            } else {
+                eligible.add(entry.getKey());
+            }
         }
         
-        // Register the subject
-        dataManager.registerSubject(studentId, subjectId);
-        return true;
+        // Register the rest together; this also checks for duplicates and free seats
+        Map<String, RegistrationResult> registered = dataManager.registerSubjects(studentId, eligible);
+        Map<String, RegistrationResult> results = new LinkedHashMap<>();
+        for (String subjectId : subjectIds) {
+            RegistrationResult result = rejected.get(subjectId);
+            results.put(subjectId, result != null ? result : registered.get(subjectId));
+        }
+        return results;
     }
     
     // Get full subject details for a registered subject
@@ -53,10 +53,8 @@ public class ValidationController {
         }
         
         // Check if the student has already registered for this subject
-        for (RegisteredSubject reg : dataManager.getRegisteredSubjectsForStudent(studentId)) {
-            if (reg.getSubjectId().equals(subjectId)) {
-                return false; // Already registered
-            }
+        if (dataManager.isRegistered(studentId, subjectId)) {
+            return false; // Already registered
         }
         
         // Check prerequisite
@@ -6,6 +6,8 @@ import java.io.Serializable;
  * Base model class with common functionality
  */
 public abstract class BaseModel implements Serializable {
+    private static final long serialVersionUID = 5229225053706310030L;
+    
     // Common model functionality can be implemented here
     // All models will extend this class
 }
\ No newline at end of file
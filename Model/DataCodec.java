@@ -0,0 +1,307 @@
+package Model;
+
+import java.io.*;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compact versioned binary format for the data files.
+ * Low-cardinality strings (school, curriculum ID, instructor, grade, ...) are written
+ * once and referenced by index afterwards.
+ */
+public final class DataCodec {
+    // File header: "SRSD" followed by the format version and the record type
+    public static final int MAGIC = 0x53525344;
+    public static final int VERSION = 2; // 2 added the subject capacity
+
+    // First two bytes of a file written by ObjectOutputStream
+    private static final int SERIALIZATION_MAGIC = 0xACED;
+
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    // Reads and writes one record type
+    public interface RecordCodec<T> {
+        byte type();
+
+        void write(Encoder out, T record) throws IOException;
+
+        T read(Decoder in) throws IOException;
+    }
+
+    public static final RecordCodec<Student> STUDENTS = new RecordCodec<Student>() {
+        @Override
+        public byte type() {
+            return 1;
+        }
+
+        @Override
+        public void write(Encoder out, Student s) throws IOException {
+            out.writeString(s.getStudentId());
+            out.writeShared(s.getTitle());
+            out.writeString(s.getFirstName());
+            out.writeString(s.getLastName());
+            out.writeDate(s.getBirthDate());
+            out.writeShared(s.getSchool());
+            out.writeString(s.getEmail());
+            out.writeShared(s.getCurriculumId());
+            out.writeString(s.getPassword());
+            out.writeBoolean(s.isAdmin());
+        }
+
+        @Override
+        public Student read(Decoder in) throws IOException {
+            return new Student(in.readString(), in.readShared(), in.readString(), in.readString(),
+                    in.readDate(), in.readShared(), in.readString(), in.readShared(),
+                    in.readString(), in.readBoolean());
+        }
+    };
+
+    public static final RecordCodec<Subject> SUBJECTS = new RecordCodec<Subject>() {
+        @Override
+        public byte type() {
+            return 2;
+        }
+
+        @Override
+        public void write(Encoder out, Subject s) throws IOException {
+            out.writeString(s.getSubjectId());
+            out.writeString(s.getSubjectName());
+            out.writeVarInt(s.getCredits());
+            out.writeShared(s.getInstructor());
+            out.writeShared(s.getPrerequisiteId());
+            out.writeVarInt(s.getCapacity());
+        }
+
+        @Override
+        public Subject read(Decoder in) throws IOException {
+            return new Subject(in.readString(), in.readString(), in.readVarInt(),
+                    in.readShared(), in.readShared(), in.getVersion() >= 2 ? in.readVarInt() : 0);
+        }
+    };
+
+    public static final RecordCodec<SubjectStructure> CURRICULUMS = new RecordCodec<SubjectStructure>() {
+        @Override
+        public byte type() {
+            return 3;
+        }
+
+        @Override
+        public void write(Encoder out, SubjectStructure c) throws IOException {
+            out.writeString(c.getCurriculumId());
+            out.writeString(c.getCurriculumName());
+            out.writeShared(c.getDepartmentName());
+
+            List<String> subjectIds = c.getAllRequiredSubjects();
+            out.writeVarInt(subjectIds.size());
+            for (int i = 0; i < subjectIds.size(); i++) {
+                out.writeShared(subjectIds.get(i));
+                out.writeVarInt(c.getSemesterAt(i));
+            }
+        }
+
+        @Override
+        public SubjectStructure read(Decoder in) throws IOException {
+            SubjectStructure c = new SubjectStructure(in.readString(), in.readString(), in.readShared());
+            int count = in.readVarInt();
+            for (int i = 0; i < count; i++) {
+                c.addRequiredSubject(in.readShared(), in.readVarInt());
+            }
+            return c;
+        }
+    };
+
+    public static final RecordCodec<RegisteredSubject> REGISTRATIONS = new RecordCodec<RegisteredSubject>() {
+        @Override
+        public byte type() {
+            return 4;
+        }
+
+        @Override
+        public void write(Encoder out, RegisteredSubject r) throws IOException {
+            out.writeShared(r.getStudentId());
+            out.writeShared(r.getSubjectId());
+            out.writeShared(r.getGrade());
+        }
+
+        @Override
+        public RegisteredSubject read(Decoder in) throws IOException {
+            return new RegisteredSubject(in.readShared(), in.readShared(), in.readShared());
+        }
+    };
+
+    private DataCodec() {
+    }
+
+    // Write a list of records to a file and force it to disk
+    public static <T> void save(List<T> records, File file, RecordCodec<T> codec) throws IOException {
+        try (FileOutputStream fileOut = new FileOutputStream(file);
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(fileOut, BUFFER_SIZE))) {
+            out.writeInt(MAGIC);
+            out.writeShort(VERSION);
+            out.writeByte(codec.type());
+
+            Encoder encoder = new Encoder(out);
+            encoder.writeVarInt(records.size());
+            for (T record : records) {
+                codec.write(encoder, record);
+            }
+            out.flush();
+            fileOut.getFD().sync();
+        }
+    }
+
+    // Read a list of records from a file
+    public static <T> List<T> load(File file, RecordCodec<T> codec) throws IOException {
+        try (DataInputStream in = new DataInputStream(
+                new BufferedInputStream(new FileInputStream(file), BUFFER_SIZE))) {
+            if (in.readInt() != MAGIC) {
+                throw new IOException("Not a data file: " + file);
+            }
+            int version = in.readUnsignedShort();
+            if (version < 1 || version > VERSION) {
+                throw new IOException("Unsupported data file version " + version + ": " + file);
+            }
+            if (in.readByte() != codec.type()) {
+                throw new IOException("Unexpected record type in " + file);
+            }
+
+            Decoder decoder = new Decoder(in, version);
+            int count = decoder.readVarInt();
+            List<T> records = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                records.add(codec.read(decoder));
+            }
+            return records;
+        }
+    }
+
+    // Check if a file was written with Java serialization by an older version.
+    // Such files are still read with ObjectInputStream and rewritten in this format, which is
+    // why the model classes keep their serialVersionUID fixed and read old fields in readObject.
+    public static boolean isSerializedFile(File file) throws IOException {
+        try (DataInputStream in = new DataInputStream(new FileInputStream(file))) {
+            return in.readUnsignedShort() == SERIALIZATION_MAGIC;
+        } catch (EOFException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Writes primitive values and dictionary-encoded strings
+     */
+    public static final class Encoder {
+        private final DataOutputStream out;
+        private final Map<String, Integer> dictionary = new HashMap<>();
+
+        Encoder(DataOutputStream out) {
+            this.out = out;
+        }
+
+        // Write a string that usually repeats: 0 = null, 1 = new string, n = dictionary entry n - 2
+        public void writeShared(String value) throws IOException {
+            if (value == null) {
+                writeVarInt(0);
+                return;
+            }
+            Integer index = dictionary.get(value);
+            if (index != null) {
+                writeVarInt(index + 2);
+            } else {
+                dictionary.put(value, dictionary.size());
+                writeVarInt(1);
+                out.writeUTF(value);
+            }
+        }
+
+        // Write a string that is usually unique
+        public void writeString(String value) throws IOException {
+            out.writeBoolean(value != null);
+            if (value != null) {
+                out.writeUTF(value);
+            }
+        }
+
+        public void writeDate(LocalDate date) throws IOException {
+            out.writeBoolean(date != null);
+            if (date != null) {
+                out.writeInt((int) date.toEpochDay());
+            }
+        }
+
+        public void writeBoolean(boolean value) throws IOException {
+            out.writeBoolean(value);
+        }
+
+        // Write a non-negative int in 7-bit groups
+        public void writeVarInt(int value) throws IOException {
+            while ((value & ~0x7F) != 0) {
+                out.writeByte((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            out.writeByte(value);
+        }
+    }
+
+    /**
+     * Reads values written by {@link Encoder}
+     */
+    public static final class Decoder {
+        private final DataInputStream in;
+        private final int version;
+        private final List<String> dictionary = new ArrayList<>();
+
+        Decoder(DataInputStream in, int version) {
+            this.in = in;
+            this.version = version;
+        }
+
+        // Format version of the file being read, so records can skip fields added later
+        public int getVersion() {
+            return version;
+        }
+
+        public String readShared() throws IOException {
+            int code = readVarInt();
+            if (code == 0) {
+                return null;
+            }
+            if (code == 1) {
+                String value = in.readUTF();
+                dictionary.add(value);
+                return value;
+            }
+            int index = code - 2;
+            if (index >= dictionary.size()) {
+                throw new IOException("Invalid dictionary reference: " + index);
+            }
+            return dictionary.get(index);
+        }
+
+        public String readString() throws IOException {
+            return in.readBoolean() ? in.readUTF() : null;
+        }
+
+        public LocalDate readDate() throws IOException {
+            return in.readBoolean() ? LocalDate.ofEpochDay(in.readInt()) : null;
+        }
+
+        public boolean readBoolean() throws IOException {
+            return in.readBoolean();
+        }
+
+        public int readVarInt() throws IOException {
+            int value = 0;
+            for (int shift = 0; shift < 32; shift += 7) {
+                int b = in.readUnsignedByte();
+                value |= (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return value;
+                }
+            }
+            throw new IOException("Malformed varint");
+        }
+    }
+}
@@ -1,32 +1,137 @@
 package Model;
 
 import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.Supplier;
 import java.time.LocalDate;
 
 /**
- * Data manager class to handle data storage and retrieval
+ * Data manager class to handle data storage and retrieval.
+ *
+ * Thread safety: every public method may be called from any thread. Each call is atomic,
+ * so it sees the data either before or after any concurrent change, never part of one.
+ * Changes are serialized by a write lock; queries run optimistically without blocking and
+ * are retried under the read lock if a change happened meanwhile. A sequence of calls is
+ * not atomic as a whole. Returned lists are copies, but the model objects in them are
+ * shared and must only be changed through the methods of this class.
  */
 public class DataManager {
-    private static final String DATA_DIR = "data/";
+    // Directory holding the data files, relative to the working directory by default
+    private static final String DATA_DIR = System.getProperty("srs.dataDir", "data") + File.separator;
     private static final String STUDENTS_FILE = DATA_DIR + "students.dat";
     private static final String SUBJECTS_FILE = DATA_DIR + "subjects.dat";
     private static final String CURRICULUM_FILE = DATA_DIR + "curriculum.dat";
     private static final String REGISTRATIONS_FILE = DATA_DIR + "registrations.dat";
+    private static final String JOURNAL_FILE = DATA_DIR + "registrations.journal";
+    
+    // Journal registration and grade changes instead of rewriting every file on each change
+    private static final boolean JOURNAL_MODE = Boolean.parseBoolean(System.getProperty("srs.journal", "true"));
+    // Number of journal records after which the snapshot files are rewritten
+    private static final int CHECKPOINT_INTERVAL = 500;
+    // Persist changes on a background thread instead of the caller's thread
+    private static final boolean WRITE_BEHIND = Boolean.parseBoolean(System.getProperty("srs.writeBehind", "true"));
+    // How long the background thread waits for more changes before writing them together
+    private static final long FLUSH_LATENCY_MS = Long.getLong("srs.flushLatencyMs", 50);
+    // Pending flush requests allowed before callers block
+    private static final int FLUSH_QUEUE_CAPACITY = 1024;
+    // Lists of at least 1/8 of all students are sorted by walking the presorted order
+    private static final int PRESORTED_WALK_DIVISOR = 8;
+    // Registrations an export copies per read lock; whole students are copied, so a batch may be a little larger
+    private static final int EXPORT_BATCH_ROWS = 4096;
     
     private List<Student> students;
     private List<Subject> subjects;
     private List<SubjectStructure> curriculums;
     private List<RegisteredSubject> registrations;
     
-    private static DataManager instance;
+    // Primary key indexes kept alongside the lists, keyed by the int form of the ID (see IdKeys)
+    private IntObjectMap<Student> studentsById;
+    private Map<String, Student> studentsByEmail;
+    // List position of the student each ID maps to, and the email each position was indexed under,
+    // so that a student edited in place can be found and its old email unmapped
+    private IntIntMap studentPositions;
+    private List<String> indexedEmails;
+    // Trigrams of student IDs and names -> student list positions, for search
+    private final TrigramIndex studentSearchIndex = new TrigramIndex();
+    // Student list positions in each sort order; kept sorted as students change
+    private final Map<StudentSort, StudentOrder> studentOrders = new EnumMap<>(StudentSort.class);
+    private IntObjectMap<Subject> subjectsById;
+    private IntObjectMap<SubjectStructure> curriculumsById;
+    
+    // Positions in the registrations list by student and by subject;
+    // the size of a subject's list is its enrollment count
+    private IntObjectMap<IntList> registrationsByStudent;
+    private IntObjectMap<IntList> registrationsBySubject;
+    
+    // Registrations keyed by the packed (student, subject) pair
+    private LongObjectMap<RegisteredSubject> registrationsByKey;
+    
+    // Dense ordinals for subjects and, per student, the set of ordinals of graded subjects
+    private IntIntMap subjectOrdinals;
+    private List<String> subjectsByOrdinal;
+    private IntObjectMap<BitSet> completedByStudent;
+    
+    // Seats taken per subject, updated without the lock so full subjects are rejected cheaply
+    private final SeatAllocator seats = new SeatAllocator();
+    private RegistrationJournal journal;
+    private WriteBehindFlusher flusher;
+    
+    // Collections changed since they were last written to disk
+    private boolean studentsDirty;
+    private boolean subjectsDirty;
+    private boolean curriculumsDirty;
+    private boolean registrationsDirty;
+    // Set when a journal write failed and the next save must checkpoint
+    private boolean checkpointRequested;
+    
+    // Held while writing files so that two saves never write the same file at once
+    private final Object fileLock = new Object();
+    private final Object checkpointLock = new Object();
+    // Held from taking journal records until they are on disk, so they are written in order
+    private final Object journalLock = new Object();
+    
+    // Background thread that folds the journal into a new registrations snapshot
+    private final ExecutorService checkpointer = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "DataManager-checkpoint");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final AtomicBoolean checkpointRunning = new AtomicBoolean();
+    
+    // Completed when each collection has been loaded; startup also covers migration and fallback
+    private CompletableFuture<Void> studentsLoaded;
+    private CompletableFuture<Void> subjectsLoaded;
+    private CompletableFuture<Void> curriculumsLoaded;
+    private CompletableFuture<Void> registrationsLoaded;
+    private CompletableFuture<Void> startup;
+    
+    // Guards the lists, indexes and dirty flags; taken after fileLock, checkpointLock or journalLock, never before
+    private final StampedLock lock = new StampedLock();
+    
+    /**
+     * Receives the registrations visited by forEachRegistration, one at a time
+     */
+    public interface RegistrationVisitor {
+        // The subject is null if the registration refers to a subject that does not exist
+        void visit(Student student, Subject subject, RegisteredSubject registration) throws IOException;
+    }
+    
+    // Created on first use; class initialization makes this thread-safe
+    private static class InstanceHolder {
+        static final DataManager INSTANCE = new DataManager();
+    }
     
     // Singleton pattern
     public static DataManager getInstance() {
-        if (instance == null) {
-            instance = new DataManager();
-        }
-        return instance;
+        return InstanceHolder.INSTANCE;
     }
     
     // Private constructor
@@ -35,6 +140,19 @@ public class DataManager {
         subjects = new ArrayList<>();
         curriculums = new ArrayList<>();
         registrations = new ArrayList<>();
+        studentsById = new IntObjectMap<>();
+        studentsByEmail = new HashMap<>();
+        studentPositions = new IntIntMap();
+        indexedEmails = new ArrayList<>();
+        subjectsById = new IntObjectMap<>();
+        curriculumsById = new IntObjectMap<>();
+        registrationsByStudent = new IntObjectMap<>();
+        registrationsBySubject = new IntObjectMap<>();
+        registrationsByKey = new LongObjectMap<>();
+        subjectOrdinals = new IntIntMap();
+        subjectsByOrdinal = new ArrayList<>();
+        completedByStudent = new IntObjectMap<>();
+        journal = new RegistrationJournal(JOURNAL_FILE);
         
         // Create data directory if it doesn't exist
         File dir = new File(DATA_DIR);
@@ -42,62 +160,618 @@ public class DataManager {
             dir.mkdirs();
         }
         
-        // Load data or create sample data if files don't exist
-        if (!loadData()) {
-            createSampleData();
-            saveData();
+        if (WRITE_BEHIND) {
+            flusher = new WriteBehindFlusher(this::persistPending, FLUSH_LATENCY_MS, FLUSH_QUEUE_CAPACITY);
+        }
+        
+        // Load data in the background or create sample data if files don't exist
+        if (dataFilesExist()) {
+            startLoading();
         } else {
-            // Ensure admin exists if data was loaded
-            ensureAdminExists();
+            createSampleData();
+            rebuildIndexes();
+            markAllDirty();
+            startupCheckpoint();
+            
+            startup = CompletableFuture.completedFuture(null);
+            studentsLoaded = startup;
+            subjectsLoaded = startup;
+            curriculumsLoaded = startup;
+            registrationsLoaded = startup;
         }
     }
     
-    // Save all data to files
+    // Save the data files that changed since they were last written,
+    // throwing UncheckedIOException if any of them could not be written
     public void saveData() {
-        saveObjectToFile(students, STUDENTS_FILE);
-        saveObjectToFile(subjects, SUBJECTS_FILE);
-        saveObjectToFile(curriculums, CURRICULUM_FILE);
-        saveObjectToFile(registrations, REGISTRATIONS_FILE);
+        awaitAllLoaded();
+        try {
+            checkpoint();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
     }
     
-    // Load all data from files
-    private boolean loadData() {
-        boolean allFilesExist = 
-            new File(STUDENTS_FILE).exists() &&
-            new File(SUBJECTS_FILE).exists() &&
-            new File(CURRICULUM_FILE).exists() &&
-            new File(REGISTRATIONS_FILE).exists();
-            
-        if (!allFilesExist) {
-            return false;
+    // Flush the journal and write every changed file including registrations
+    private void checkpoint() throws IOException {
+        syncJournal();
+        writeSnapshots();
+        writeRegistrationsSnapshot();
+    }
+    
+    // Write the files at startup; whatever fails stays dirty and is written with the next change
+    private void startupCheckpoint() {
+        try {
+            checkpoint();
+        } catch (IOException e) {
+            System.err.println("Error saving data: " + e.getMessage());
+        }
+    }
+    
+    // Write all pending changes and wait until they are on disk,
+    // throwing UncheckedIOException if they could not be written
+    public void flush() {
+        if (flusher != null) {
+            flusher.flush();
+        } else {
+            try {
+                persistPending();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
         }
+    }
+    
+    // Wait until every change made so far has been written to disk,
+    // throwing UncheckedIOException if writing some of them failed
+    public void awaitDurable() {
+        if (flusher != null) {
+            flusher.awaitDurable();
+        } else {
+            flush(); // Changes are written as they are made, this retries any that failed
+        }
+    }
+    
+    // Persist pending changes now, or hand them to the background flusher.
+    // A failed write leaves the changes pending for the next one, flush() reports it.
+    private void requestPersist() {
+        if (flusher != null) {
+            flusher.request();
+        } else {
+            try {
+                persistPending();
+            } catch (IOException e) {
+                System.err.println("Error saving data: " + e.getMessage());
+            }
+        }
+    }
+    
+    // Flush journaled changes and write changed files, rewriting registrations only at a checkpoint
+    private void persistPending() throws IOException {
+        syncJournal();
+        boolean journalFailed = read(() -> checkpointRequested);
+        boolean checkpointDue = read(() -> journal.size() >= CHECKPOINT_INTERVAL);
+        writeSnapshots();
         
+        if (!JOURNAL_MODE || journalFailed) {
+            writeRegistrationsSnapshot(); // The snapshot is the only durable copy of these changes
+        } else if (checkpointDue) {
+            startCheckpoint();
+        }
+    }
+    
+    // Fold the journal into a new registrations snapshot on the checkpoint thread.
+    // The journal still holds the changes, so a failure here loses nothing and the next checkpoint retries.
+    private void startCheckpoint() {
+        if (checkpointRunning.compareAndSet(false, true)) {
+            checkpointer.execute(() -> {
+                try {
+                    writeRegistrationsSnapshot();
+                } catch (IOException e) {
+                    System.err.println("Error writing checkpoint: " + e.getMessage());
+                } finally {
+                    checkpointRunning.set(false);
+                }
+            });
+        }
+    }
+    
+    // Write buffered journal records to disk. Only taking them needs the lock,
+    // so changes and queries go on while the records are written and synced.
+    private void syncJournal() throws IOException {
+        synchronized (journalLock) {
+            byte[] records;
+            long stamp = lock.writeLock();
+            try {
+                records = journal.takeBuffered();
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+            
+            try {
+                journal.write(records);
+            } catch (IOException e) {
+                requestCheckpoint(); // The records are lost from the journal, the snapshot must cover them
+                throw e;
+            }
+        }
+    }
+    
+    private void requestCheckpoint() {
+        long stamp = lock.writeLock();
         try {
-            @SuppressWarnings("unchecked")
-            List<Student> loadedStudents = (List<Student>) loadObjectFromFile(STUDENTS_FILE);
-            students = loadedStudents;
+            checkpointRequested = true;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+    
+    // Write dirty students, subjects and curriculums; they are copied under the lock and written outside it
+    private void writeSnapshots() throws IOException {
+        synchronized (fileLock) {
+            List<Student> studentsCopy = null;
+            List<Subject> subjectsCopy = null;
+            List<SubjectStructure> curriculumsCopy = null;
             
-            // Ensure admin user exists
-            ensureAdminExists();
+            long stamp = lock.writeLock();
+            try {
+                if (studentsDirty) {
+                    studentsCopy = new ArrayList<>(students);
+                    studentsDirty = false;
+                }
+                if (subjectsDirty) {
+                    subjectsCopy = new ArrayList<>(subjects);
+                    subjectsDirty = false;
+                }
+                if (curriculumsDirty) {
+                    curriculumsCopy = new ArrayList<>(curriculums);
+                    curriculumsDirty = false;
+                }
+            } finally {
+                lock.unlockWrite(stamp);
+            }
             
-            @SuppressWarnings("unchecked")
-            List<Subject> loadedSubjects = (List<Subject>) loadObjectFromFile(SUBJECTS_FILE);
-            subjects = loadedSubjects;
+            IOException studentsError = studentsCopy == null ? null : trySave(studentsCopy, STUDENTS_FILE, DataCodec.STUDENTS);
+            IOException subjectsError = subjectsCopy == null ? null : trySave(subjectsCopy, SUBJECTS_FILE, DataCodec.SUBJECTS);
+            IOException curriculumsError = curriculumsCopy == null ? null : trySave(curriculumsCopy, CURRICULUM_FILE, DataCodec.CURRICULUMS);
+            if (studentsError == null && subjectsError == null && curriculumsError == null) {
+                return;
+            }
             
-            @SuppressWarnings("unchecked")
-            List<SubjectStructure> loadedCurriculums = (List<SubjectStructure>) loadObjectFromFile(CURRICULUM_FILE);
-            curriculums = loadedCurriculums;
+            // Files that could not be written stay dirty for the next save
+            stamp = lock.writeLock();
+            try {
+                studentsDirty |= studentsError != null;
+                subjectsDirty |= subjectsError != null;
+                curriculumsDirty |= curriculumsError != null;
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+            throw studentsError != null ? studentsError : subjectsError != null ? subjectsError : curriculumsError;
+        }
+    }
+    
+    // Write a new registrations snapshot and drop the journal segments it covers.
+    // The list is copied and the journal records taken under the lock; the segment is sealed and
+    // the snapshot written after it is released, so changes can continue meanwhile.
+    private void writeRegistrationsSnapshot() throws IOException {
+        synchronized (checkpointLock) {
+            List<RegisteredSubject> registrationsCopy;
+            long sealedSegment = 0;
+            boolean journalFailed = false;
+            long stamp;
             
-            @SuppressWarnings("unchecked")
-            List<RegisteredSubject> loadedRegistrations = (List<RegisteredSubject>) loadObjectFromFile(REGISTRATIONS_FILE);
-            registrations = loadedRegistrations;
-            return true;
-        } catch (Exception e) {
-            System.err.println("Error loading data: " + e.getMessage());
+            // The records taken here are written to the segment being sealed before later ones are
+            // taken, so the sealed segments hold exactly the changes the copy includes
+            synchronized (journalLock) {
+                byte[] records;
+                stamp = lock.writeLock();
+                try {
+                    if (!registrationsDirty) {
+                        return;
+                    }
+                    registrationsCopy = new ArrayList<>(registrations);
+                    registrationsDirty = false;
+                    checkpointRequested = false;
+                    records = journal.seal();
+                } finally {
+                    lock.unlockWrite(stamp);
+                }
+                
+                try {
+                    sealedSegment = journal.rotate(records);
+                } catch (IOException e) {
+                    System.err.println("Error sealing journal: " + e.getMessage());
+                    journalFailed = true; // The records taken may be missing from the journal
+                }
+            }
+            
+            try {
+                saveListToFile(registrationsCopy, REGISTRATIONS_FILE, DataCodec.REGISTRATIONS);
+            } catch (IOException e) {
+                stamp = lock.writeLock();
+                try {
+                    registrationsDirty = true;
+                    checkpointRequested |= journalFailed; // Then only a snapshot can make them durable
+                } finally {
+                    lock.unlockWrite(stamp);
+                }
+                throw e;
+            }
+            
+            // The snapshot is durable, so the sealed journal segments are no longer needed
+            if (sealedSegment > 0) {
+                try {
+                    journal.deleteSealed(sealedSegment);
+                } catch (IOException e) {
+                    System.err.println("Error deleting journal segment: " + e.getMessage());
+                }
+            }
+        }
+    }
+    
+    // Mark every collection as changed so the next save rewrites all files
+    private void markAllDirty() {
+        studentsDirty = true;
+        subjectsDirty = true;
+        curriculumsDirty = true;
+        registrationsDirty = true;
+    }
+    
+    // Record a registration change in the journal, must be called while holding the write lock
+    private void logChange(byte op, String studentId, String subjectId, String grade) {
+        if (!JOURNAL_MODE) {
+            return;
+        }
+        
+        try {
+            journal.append(op, studentId, subjectId, grade);
+        } catch (IOException e) {
+            System.err.println("Error writing journal: " + e.getMessage());
+            checkpointRequested = true; // Fall back to a full save so the change is not lost
+        }
+    }
+    
+    // Apply a journal record to the in-memory data without persisting it again
+    private void applyJournalRecord(byte op, String studentId, String subjectId, String grade) {
+        if (op == RegistrationJournal.OP_REGISTER) {
+            addRegistration(newRegistration(studentId, subjectId));
+        } else if (op == RegistrationJournal.OP_GRADE) {
+            updateGrade(studentId, subjectId, grade);
+        }
+    }
+    
+    // Check if all data files exist
+    private boolean dataFilesExist() {
+        return new File(STUDENTS_FILE).exists() &&
+            new File(SUBJECTS_FILE).exists() &&
+            new File(CURRICULUM_FILE).exists() &&
+            new File(REGISTRATIONS_FILE).exists();
+    }
+    
+    // Load the data files concurrently; callers only wait for the collections they use
+    private void startLoading() {
+        long start = System.nanoTime();
+        ExecutorService loader = Executors.newFixedThreadPool(4, runnable -> {
+            Thread thread = new Thread(runnable, "DataManager-loader");
+            thread.setDaemon(true);
+            return thread;
+        });
+        
+        studentsLoaded = CompletableFuture.runAsync(this::loadStudents, loader);
+        subjectsLoaded = CompletableFuture.runAsync(this::loadSubjects, loader);
+        curriculumsLoaded = CompletableFuture.runAsync(this::loadCurriculums, loader);
+        registrationsLoaded = CompletableFuture.runAsync(this::loadRegistrations, loader);
+        
+        startup = CompletableFuture
+            .allOf(studentsLoaded, subjectsLoaded, curriculumsLoaded, registrationsLoaded)
+            .handle((ignored, error) -> {
+                finishLoading(error, start);
+                return null;
+            });
+        startup.whenComplete((ignored, error) -> loader.shutdown());
+    }
+    
+    // Load students and build the ID and email indexes, the latter used for login
+    private void loadStudents() {
+        boolean legacy = isSerializedFile(STUDENTS_FILE);
+        List<Student> loaded = loadTimed(STUDENTS_FILE, DataCodec.STUDENTS);
+        StringPool.canonicalizeStudents(loaded);
+        long stamp = lock.writeLock();
+        try {
+            students = loaded;
+            studentsDirty = legacy; // Files in the old serialized format are rewritten on the next save
+            rebuildStudentIndexes();
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+        ensureAdminExists();
+    }
+    
+    private void loadSubjects() {
+        boolean legacy = isSerializedFile(SUBJECTS_FILE);
+        List<Subject> loaded = loadTimed(SUBJECTS_FILE, DataCodec.SUBJECTS);
+        StringPool.canonicalizeSubjects(loaded);
+        long stamp = lock.writeLock();
+        try {
+            subjects = loaded;
+            subjectsDirty = legacy;
+            rebuildSubjectIndex();
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+    
+    private void loadCurriculums() {
+        boolean legacy = isSerializedFile(CURRICULUM_FILE);
+        List<SubjectStructure> loaded = loadTimed(CURRICULUM_FILE, DataCodec.CURRICULUMS);
+        long stamp = lock.writeLock();
+        try {
+            curriculums = loaded;
+            curriculumsDirty = legacy;
+            rebuildCurriculumIndex();
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+    
+    // Load registrations and re-apply changes made after the last checkpoint
+    private void loadRegistrations() {
+        boolean legacy = isSerializedFile(REGISTRATIONS_FILE);
+        List<RegisteredSubject> loaded = loadTimed(REGISTRATIONS_FILE, DataCodec.REGISTRATIONS);
+        StringPool.canonicalizeRegistrations(loaded);
+        long stamp = lock.writeLock();
+        try {
+            registrations = loaded;
+            registrationsDirty = legacy;
+            rebuildRegistrationIndexes();
+            
+            try {
+                int replayed = journal.replay(this::applyJournalRecord);
+                if (replayed > 0) {
+                    System.out.println("Replayed " + replayed + " journal records.");
+                    seats.reset(registrations);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+    
+    // Fall back to sample data if a file failed to load, then write out migrated and replayed data
+    private void finishLoading(Throwable error, long start) {
+        if (error != null) {
+            Throwable cause = error;
+            while ((cause instanceof CompletionException || cause instanceof UncheckedIOException) && cause.getCause() != null) {
+                cause = cause.getCause();
+            }
+            System.err.println("Error loading data: " + cause.getMessage());
+            long stamp = lock.writeLock();
+            try {
+                students = new ArrayList<>();
+                subjects = new ArrayList<>();
+                curriculums = new ArrayList<>();
+                registrations = new ArrayList<>();
+                createSampleData();
+                rebuildIndexes();
+                markAllDirty();
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+        }
+        
+        startupCheckpoint();
+        System.out.println("Data ready in " + elapsedMillis(start) + " ms");
+    }
+    
+    // Load one data file and log how long it took
+    private <T> List<T> loadTimed(String filePath, DataCodec.RecordCodec<T> codec) {
+        long start = System.nanoTime();
+        try {
+            List<T> list = loadListFromFile(filePath, codec);
+            System.out.println("Loaded " + filePath + " (" + list.size() + " records) in " + elapsedMillis(start) + " ms");
+            return list;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (ClassNotFoundException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+    
+    // Check if a data file is still in the old serialized format
+    private boolean isSerializedFile(String filePath) {
+        try {
+            return DataCodec.isSerializedFile(new File(filePath));
+        } catch (IOException e) {
             return false;
         }
     }
     
+    private static long elapsedMillis(long startNanos) {
+        return (System.nanoTime() - startNanos) / 1_000_000;
+    }
+    
+    // Run a query with an optimistic read. If a change happened meanwhile the result may be
+    // inconsistent or the query may have failed, so it is run again under the read lock.
+    private <T> T read(Supplier<T> query) {
+        long stamp = lock.tryOptimisticRead();
+        if (stamp != 0) {
+            try {
+                T result = query.get();
+                if (lock.validate(stamp)) {
+                    return result;
+                }
+            } catch (RuntimeException e) {
+                // Saw a change half-way through, retry below
+            }
+        }
+        
+        stamp = lock.readLock();
+        try {
+            return query.get();
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+    
+    // Wait until a collection has been loaded
+    private void await(CompletableFuture<Void> loaded) {
+        try {
+            loaded.join();
+        } catch (CompletionException e) {
+            startup.join(); // Loading failed, wait for the sample data fallback
+        }
+    }
+    
+    // Wait until every collection has been loaded
+    private void awaitAllLoaded() {
+        await(studentsLoaded);
+        await(subjectsLoaded);
+        await(curriculumsLoaded);
+        await(registrationsLoaded);
+    }
+    
+    // Rebuild every primary key index from the lists
+    private void rebuildIndexes() {
+        rebuildStudentIndexes();
+        rebuildSubjectIndex();
+        rebuildCurriculumIndex();
+        rebuildRegistrationIndexes();
+    }
+    
+    // Rebuild the student ID and email indexes; the first student with a key wins, as a scan would find it first
+    private void rebuildStudentIndexes() {
+        studentsById = new IntObjectMap<>(students.size());
+        studentsByEmail = new HashMap<>(students.size() * 2);
+        studentPositions = new IntIntMap(students.size());
+        indexedEmails = new ArrayList<>(students.size());
+        for (int i = 0; i < students.size(); i++) {
+            indexStudentKeys(i);
+        }
+        studentSearchIndex.rebuild(students);
+        rebuildStudentOrders();
+    }
+    
+    // Add the student appended at a position to the ID and email indexes, unless another student has the key already
+    private void indexStudentKeys(int position) {
+        Student student = students.get(position);
+        if (studentsById.putIfAbsent(student.getStudentKey(), student) == null) {
+            studentPositions.put(student.getStudentKey(), position);
+        }
+        studentsByEmail.putIfAbsent(student.getEmail(), student);
+        indexedEmails.add(student.getEmail());
+    }
+    
+    // Sort the student positions for every order, computing each student's sort key once
+    private void rebuildStudentOrders() {
+        for (StudentSort sort : StudentSort.values()) {
+            studentOrders.computeIfAbsent(sort, StudentOrder::new).rebuild(students);
+        }
+    }
+    
+    // Add a student just appended to the list to the search index and sort orders
+    private void indexNewStudent(int position) {
+        Student student = students.get(position);
+        studentSearchIndex.set(position, student);
+        for (StudentOrder order : studentOrders.values()) {
+            order.add(position, student);
+        }
+    }
+    
+    // Update the search index and sort orders for a student replaced or edited at a position
+    private void reindexStudent(int position) {
+        Student student = students.get(position);
+        studentSearchIndex.set(position, student);
+        for (StudentOrder order : studentOrders.values()) {
+            order.update(position, student);
+        }
+    }
+    
+    private void rebuildSubjectIndex() {
+        subjectsById = new IntObjectMap<>(subjects.size());
+        for (Subject subject : subjects) {
+            subjectsById.putIfAbsent(subject.getSubjectKey(), subject);
+        }
+    }
+    
+    private void rebuildCurriculumIndex() {
+        curriculumsById = new IntObjectMap<>(curriculums.size());
+        for (SubjectStructure curriculum : curriculums) {
+            curriculumsById.putIfAbsent(curriculum.getCurriculumKey(), curriculum);
+        }
+    }
+    
+    // Rebuild the per-student and per-subject registration indexes
+    private void rebuildRegistrationIndexes() {
+        registrationsByStudent = new IntObjectMap<>();
+        registrationsBySubject = new IntObjectMap<>();
+        registrationsByKey = new LongObjectMap<>(registrations.size());
+        subjectOrdinals = new IntIntMap();
+        subjectsByOrdinal = new ArrayList<>();
+        completedByStudent = new IntObjectMap<>();
+        for (int i = 0; i < registrations.size(); i++) {
+            indexRegistration(registrations.get(i), i);
+        }
+        seats.reset(registrations);
+    }
+    
+    // Add the registration at a position in the list to the secondary indexes
+    private void indexRegistration(RegisteredSubject reg, int position) {
+        positionsFor(registrationsByStudent, reg.getStudentKey()).add(position);
+        positionsFor(registrationsBySubject, reg.getSubjectKey()).add(position);
+        registrationsByKey.put(IdKeys.pack(reg.getStudentKey(), reg.getSubjectKey()), reg);
+        if (reg.isGraded()) {
+            markCompleted(reg);
+        }
+    }
+    
+    private static IntList positionsFor(IntObjectMap<IntList> index, int key) {
+        IntList positions = index.get(key);
+        if (positions == null) {
+            positions = new IntList();
+            index.put(key, positions);
+        }
+        return positions;
+    }
+    
+    // Set or clear the completed bit of a registration's subject for its student
+    private void markCompleted(RegisteredSubject reg) {
+        int ordinal = subjectOrdinals.get(reg.getSubjectKey(), -1);
+        if (ordinal < 0) {
+            if (!reg.isGraded()) {
+                return;
+            }
+            ordinal = subjectsByOrdinal.size();
+            subjectOrdinals.put(reg.getSubjectKey(), ordinal);
+            subjectsByOrdinal.add(reg.getSubjectId());
+        }
+        
+        BitSet completedSubjects = completedByStudent.get(reg.getStudentKey());
+        if (reg.isGraded()) {
+            if (completedSubjects == null) {
+                completedSubjects = new BitSet();
+                completedByStudent.put(reg.getStudentKey(), completedSubjects);
+            }
+            completedSubjects.set(ordinal);
+        } else if (completedSubjects != null) {
+            completedSubjects.clear(ordinal);
+        }
+    }
+    
+    // Registrations at the given positions in the list
+    private List<RegisteredSubject> registrationsAt(IntList positions) {
+        if (positions == null) {
+            return new ArrayList<>();
+        }
+        List<RegisteredSubject> result = new ArrayList<>(positions.size());
+        for (int i = 0; i < positions.size(); i++) {
+            result.add(registrations.get(positions.get(i)));
+        }
+        return result;
+    }
+    
     // Create sample data as required
     private void createSampleData() {
         // Create sample curriculums (at least 2)
@@ -247,192 +921,630 @@ public class DataManager {
         registrations.add(r5);
     }
     
-    // Helper method to save an object to a file
-    private void saveObjectToFile(Object obj, String filePath) {
-        try (ObjectOutputStream oos = new ObjectOutputStream(new FileOutputStream(filePath))) {
-            oos.writeObject(obj);
+    // Helper method to save a list to a file in the binary format.
+    // The list is written to a temporary file first and renamed over the old one, so a crash
+    // during the write leaves the previous snapshot intact.
+    private <T> void saveListToFile(List<T> list, String filePath, DataCodec.RecordCodec<T> codec) throws IOException {
+        File tmp = new File(filePath + ".tmp");
+        try {
+            DataCodec.save(list, tmp, codec);
+            Files.move(tmp.toPath(), new File(filePath).toPath(),
+                StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
         } catch (IOException e) {
-            System.err.println("Error saving to " + filePath + ": " + e.getMessage());
+            throw new IOException("Error saving to " + filePath + ": " + e.getMessage(), e);
         }
     }
     
-    // Helper method to load an object from a file
-    private Object loadObjectFromFile(String filePath) throws IOException, ClassNotFoundException {
-        try (ObjectInputStream ois = new ObjectInputStream(new FileInputStream(filePath))) {
-            return ois.readObject();
+    // Save a list to a file, returning the error instead of throwing it
+    private <T> IOException trySave(List<T> list, String filePath, DataCodec.RecordCodec<T> codec) {
+        try {
+            saveListToFile(list, filePath, codec);
+            return null;
+        } catch (IOException e) {
+            return e;
+        }
+    }
+    
+    // Helper method to load a list from a file, reading files written with Java serialization as well
+    private <T> List<T> loadListFromFile(String filePath, DataCodec.RecordCodec<T> codec) throws IOException, ClassNotFoundException {
+        File file = new File(filePath);
+        if (!DataCodec.isSerializedFile(file)) {
+            return DataCodec.load(file, codec);
+        }
+        
+        try (ObjectInputStream ois = new ObjectInputStream(new FileInputStream(file))) {
+            @SuppressWarnings("unchecked")
+            List<T> list = (List<T>) ois.readObject();
+            return list;
         }
     }
     
     // Get all students
     public List<Student> getAllStudents() {
-        return new ArrayList<>(students);
+        await(studentsLoaded);
+        return read(() -> new ArrayList<>(students));
     }
     
     // Get students by school
     public List<Student> getStudentsBySchool(String school) {
-        List<Student> result = new ArrayList<>();
-        for (Student student : students) {
-            if (student.getSchool().equals(school) && !student.isAdmin()) {
-                result.add(student);
+        await(studentsLoaded);
+        return read(() -> {
+            List<Student> result = new ArrayList<>();
+            for (Student student : students) {
+                if (student.getSchool().equals(school) && !student.isAdmin()) {
+                    result.add(student);
+                }
             }
+            return result;
+        });
+    }
+    
+    // Find the students matching a query, in the query's sort order.
+    // The cursor only holds their positions and reads the students a page at a time.
+    public StudentCursor queryStudents(StudentQuery query) {
+        await(studentsLoaded);
+        String[] words = query.getSearchWords();
+        int[] positions = read(() -> {
+            StudentOrder order = studentOrders.get(query.getSort());
+            IntList matches = new IntList();
+            if (words.length == 0) {
+                // Walk the sort order, it is already sorted; without search words only the filters apply
+                for (int i = 0; i < order.size(); i++) {
+                    int position = order.get(i);
+                    if (query.matchesFilters(students.get(position))) {
+                        matches.add(position);
+                    }
+                }
+            } else {
+                // The search index finds the candidates, only the filters are checked here
+                int[] found = studentSearchIndex.search(words);
+                if (found.length < students.size() / 16) {
+                    // Few results, sorting them costs less than a walk over every student
+                    List<Integer> candidates = new ArrayList<>(found.length);
+                    for (int position : found) {
+                        if (query.matchesFilters(students.get(position))) {
+                            candidates.add(position);
+                        }
+                    }
+                    Comparator<Student> comparator = query.getSort().getComparator();
+                    candidates.sort((a, b) -> comparator.compare(students.get(a), students.get(b))); // Stable, ties in list order
+                    for (int position : candidates) {
+                        matches.add(position);
+                    }
+                } else {
+                    BitSet candidates = new BitSet(students.size());
+                    for (int position : found) {
+                        candidates.set(position);
+                    }
+                    for (int i = 0; i < order.size(); i++) {
+                        int position = order.get(i);
+                        if (candidates.get(position) && query.matchesFilters(students.get(position))) {
+                            matches.add(position);
+                        }
+                    }
+                }
+            }
+            
+            int[] result = matches.toArray();
+            if (query.isDescending()) {
+                reverse(result);
+            }
+            return result;
+        });
+        return new StudentCursor(this, positions);
+    }
+    
+    // Get the given students in a sort order or its reverse. A large share of all students is
+    // taken from the presorted order in one walk; a smaller list costs less to sort directly.
+    public List<Student> sortStudents(Collection<Student> subset, StudentSort sort, boolean descending) {
+        await(studentsLoaded);
+        List<Student> result = null;
+        if ((long) subset.size() * PRESORTED_WALK_DIVISOR >= read(students::size)) {
+            result = walkStudentOrder(subset, sort);
+        }
+        if (result == null) {
+            result = new ArrayList<>(subset);
+            result.sort(sort.getComparator());
+        }
+        if (descending) {
+            Collections.reverse(result); // Reversed as a whole, like a descending query
         }
         return result;
     }
     
+    // Pick the given students out of the presorted order, or null if some are not in the student list
+    private List<Student> walkStudentOrder(Collection<Student> subset, StudentSort sort) {
+        Map<Student, Integer> counts = new IdentityHashMap<>();
+        for (Student student : subset) {
+            counts.merge(student, 1, Integer::sum);
+        }
+        return read(() -> {
+            StudentOrder order = studentOrders.get(sort);
+            List<Student> result = new ArrayList<>(subset.size());
+            for (int i = 0; i < order.size() && result.size() < subset.size(); i++) {
+                Student student = students.get(order.get(i));
+                for (int n = counts.getOrDefault(student, 0); n > 0; n--) {
+                    result.add(student);
+                }
+            }
+            return result.size() < subset.size() ? null : result;
+        });
+    }
+    
+    private static void reverse(int[] values) {
+        for (int i = 0, j = values.length - 1; i < j; i++, j--) {
+            int value = values[i];
+            values[i] = values[j];
+            values[j] = value;
+        }
+    }
+    
+    // Find the students whose ID or full name contains every word of the text, best matches first:
+    // exact IDs, then words starting with the query words, then the rest in list order
+    public List<Student> searchStudents(String text) {
+        await(studentsLoaded);
+        String[] words = TrigramIndex.wordsOf(text);
+        return read(() -> {
+            int[] positions = studentSearchIndex.search(words);
+            // Rank in the high bits and position in the low bits sorts by rank, then list order
+            long[] order = new long[positions.length];
+            for (int i = 0; i < positions.length; i++) {
+                order[i] = (long) studentSearchIndex.rank(positions[i], words) << 32 | positions[i];
+            }
+            Arrays.sort(order);
+            
+            List<Student> result = new ArrayList<>(order.length);
+            for (long entry : order) {
+                result.add(students.get((int) entry));
+            }
+            return result;
+        });
+    }
+    
+    // Students at a range of the given list positions, used by StudentCursor
+    List<Student> studentsAt(int[] positions, int from, int to) {
+        return read(() -> {
+            List<Student> page = new ArrayList<>(to - from);
+            for (int i = from; i < to; i++) {
+                page.add(students.get(positions[i]));
+            }
+            return page;
+        });
+    }
+    
     // Get all schools
     public List<String> getAllSchools() {
-        Set<String> schools = new HashSet<>();
-        for (Student student : students) {
-            if (!student.isAdmin()) {
-                schools.add(student.getSchool());
+        await(studentsLoaded);
+        return read(() -> {
+            Set<String> schools = new HashSet<>();
+            for (Student student : students) {
+                if (!student.isAdmin()) {
+                    schools.add(student.getSchool());
+                }
             }
-        }
-        return new ArrayList<>(schools);
+            return new ArrayList<>(schools);
+        });
     }
     
     // Get all subjects
     public List<Subject> getAllSubjects() {
-        return new ArrayList<>(subjects);
+        await(subjectsLoaded);
+        return read(() -> new ArrayList<>(subjects));
     }
     
     // Get subject by ID
     public Subject getSubjectById(String subjectId) {
-        for (Subject subject : subjects) {
-            if (subject.getSubjectId().equals(subjectId)) {
-                return subject;
-            }
-        }
-        return null;
+        await(subjectsLoaded);
+        return read(() -> subjectsById.get(IdKeys.lookup(subjectId)));
     }
     
     // Get all curriculums
     public List<SubjectStructure> getAllCurriculums() {
-        return new ArrayList<>(curriculums);
+        await(curriculumsLoaded);
+        return read(() -> new ArrayList<>(curriculums));
     }
     
     // Get curriculum by ID
     public SubjectStructure getCurriculumById(String curriculumId) {
-        for (SubjectStructure curriculum : curriculums) {
-            if (curriculum.getCurriculumId().equals(curriculumId)) {
-                return curriculum;
-            }
-        }
-        return null;
+        await(curriculumsLoaded);
+        return read(() -> curriculumsById.get(IdKeys.lookup(curriculumId)));
     }
     
     // Get student by ID
     public Student getStudentById(String studentId) {
-        for (Student student : students) {
-            if (student.getStudentId().equals(studentId)) {
-                return student;
-            }
-        }
-        return null;
+        await(studentsLoaded);
+        return read(() -> studentsById.get(IdKeys.lookup(studentId)));
     }
     
     // Get student by email (for login)
     public Student getStudentByEmail(String email) {
-        for (Student student : students) {
-            if (student.getEmail().equals(email)) {
-                return student;
-            }
-        }
-        return null;
+        await(studentsLoaded);
+        return read(() -> studentsByEmail.get(email));
     }
     
     // Get all registered subjects for a student
     public List<RegisteredSubject> getRegisteredSubjectsForStudent(String studentId) {
-        List<RegisteredSubject> result = new ArrayList<>();
-        for (RegisteredSubject reg : registrations) {
-            if (reg.getStudentId().equals(studentId)) {
-                result.add(reg);
-            }
-        }
-        return result;
+        await(registrationsLoaded);
+        return read(() -> registrationsAt(registrationsByStudent.get(IdKeys.lookup(studentId))));
     }
     
     // Get all students registered for a subject
     public List<Student> getStudentsForSubject(String subjectId) {
-        List<Student> result = new ArrayList<>();
-        for (RegisteredSubject reg : registrations) {
-            if (reg.getSubjectId().equals(subjectId)) {
-                Student student = getStudentById(reg.getStudentId());
+        await(registrationsLoaded);
+        await(studentsLoaded);
+        return read(() -> {
+            List<Student> result = new ArrayList<>();
+            for (RegisteredSubject reg : registrationsAt(registrationsBySubject.get(IdKeys.lookup(subjectId)))) {
+                Student student = studentsById.get(reg.getStudentKey());
                 if (student != null) {
                     result.add(student);
                 }
             }
-        }
-        return result;
+            return result;
+        });
     }
     
     // Check if a student has completed a prerequisite
     public boolean hasCompletedPrerequisite(String studentId, String prerequisiteId) {
-        for (RegisteredSubject reg : registrations) {
-            if (reg.getStudentId().equals(studentId) && 
-                reg.getSubjectId().equals(prerequisiteId) && 
-                reg.isGraded()) {
-                return true;
+        await(registrationsLoaded);
+        return read(() -> {
+            int ordinal = subjectOrdinals.get(IdKeys.lookup(prerequisiteId), -1);
+            BitSet completedSubjects = completedByStudent.get(IdKeys.lookup(studentId));
+            return ordinal >= 0 && completedSubjects != null && completedSubjects.get(ordinal);
+        });
+    }
+    
+    // Get the subjects among the given ones that a student has completed
+    public Set<String> getCompletedSubjects(String studentId, Collection<String> subjectIds) {
+        await(registrationsLoaded);
+        return read(() -> {
+            BitSet completedSubjects = completedByStudent.get(IdKeys.lookup(studentId));
+            if (completedSubjects == null) {
+                return new HashSet<>();
+            }
+            
+            // Intersect the wanted subjects with the student's completed ones a word at a time
+            BitSet wanted = new BitSet(subjectsByOrdinal.size());
+            for (String subjectId : subjectIds) {
+                int ordinal = subjectOrdinals.get(IdKeys.lookup(subjectId), -1);
+                if (ordinal >= 0) {
+                    wanted.set(ordinal);
+                }
             }
+            wanted.and(completedSubjects);
+            
+            Set<String> result = new HashSet<>();
+            for (int i = wanted.nextSetBit(0); i >= 0; i = wanted.nextSetBit(i + 1)) {
+                result.add(subjectsByOrdinal.get(i));
+            }
+            return result;
+        });
+    }
+    
+    // Check if a student is already registered for a subject
+    public boolean isRegistered(String studentId, String subjectId) {
+        await(registrationsLoaded);
+        return read(() -> findRegistration(studentId, subjectId) != null);
+    }
+    
+    // Register a student for a subject, taking a seat if the subject has a capacity
+    public RegistrationResult registerSubject(String studentId, String subjectId) {
+        await(registrationsLoaded);
+        Subject subject = getSubjectById(subjectId);
+        if (subject == null) {
+            return RegistrationResult.NOT_FOUND;
+        }
+        if (isRegistered(studentId, subjectId)) {
+            return RegistrationResult.ALREADY_REGISTERED;
+        }
+        
+        // The seat is taken first, so a full subject never gets as far as the write lock
+        if (!seats.tryAcquire(subject.getSubjectKey(), subject.getCapacity())) {
+            return RegistrationResult.FULL;
+        }
+        
+        RegisteredSubject newReg = newRegistration(studentId, subjectId);
+        long stamp = lock.writeLock();
+        try {
+            if (!addRegistration(newReg)) {
+                seats.release(subject.getSubjectKey()); // Registered by another thread meanwhile
+                return RegistrationResult.ALREADY_REGISTERED;
+            }
+            logChange(RegistrationJournal.OP_REGISTER, studentId, subjectId, null);
+        } finally {
+            lock.unlockWrite(stamp);
         }
-        return false;
+        requestPersist();
+        return RegistrationResult.SUCCESS;
     }
     
-    // Register a student for a subject
-    public void registerSubject(String studentId, String subjectId) {
-        // Check if already registered
-        for (RegisteredSubject reg : registrations) {
-            if (reg.getStudentId().equals(studentId) && reg.getSubjectId().equals(subjectId)) {
-                return; // Already registered
+    // Register a student for several subjects at once, returns the outcome for each subject in order.
+    // The subjects that pass the checks are added under one write lock and persisted together.
+    public Map<String, RegistrationResult> registerSubjects(String studentId, Collection<String> subjectIds) {
+        await(registrationsLoaded);
+        await(subjectsLoaded);
+        Map<String, RegistrationResult> results = read(() -> {
+            Map<String, RegistrationResult> checked = new LinkedHashMap<>();
+            for (String subjectId : subjectIds) {
+                if (checked.containsKey(subjectId)) {
+                    continue; // Listed twice
+                }
+                if (subjectsById.get(IdKeys.lookup(subjectId)) == null) {
+                    checked.put(subjectId, RegistrationResult.NOT_FOUND);
+                } else if (findRegistration(studentId, subjectId) != null) {
+                    checked.put(subjectId, RegistrationResult.ALREADY_REGISTERED);
+                } else {
+                    checked.put(subjectId, RegistrationResult.SUCCESS);
+                }
+            }
+            return checked;
+        });
+        
+        // Take the seats first, as for a single registration
+        List<RegisteredSubject> seated = new ArrayList<>();
+        for (Map.Entry<String, RegistrationResult> entry : results.entrySet()) {
+            if (entry.getValue() == RegistrationResult.SUCCESS) {
+                Subject subject = getSubjectById(entry.getKey());
+                if (seats.tryAcquire(subject.getSubjectKey(), subject.getCapacity())) {
+                    seated.add(newRegistration(studentId, entry.getKey()));
+                } else {
+                    entry.setValue(RegistrationResult.FULL);
+                }
             }
         }
+        if (seated.isEmpty()) {
+            return results;
+        }
         
-        RegisteredSubject newReg = new RegisteredSubject(studentId, subjectId, null);
-        registrations.add(newReg);
-        saveData();
+        long stamp = lock.writeLock();
+        try {
+            for (RegisteredSubject newReg : seated) {
+                String subjectId = newReg.getSubjectId();
+                if (addRegistration(newReg)) {
+                    logChange(RegistrationJournal.OP_REGISTER, studentId, subjectId, null);
+                } else {
+                    seats.release(newReg.getSubjectKey()); // Registered by another thread meanwhile
+                    results.put(subjectId, RegistrationResult.ALREADY_REGISTERED);
+                }
+            }
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+        requestPersist();
+        return results;
+    }
+    
+    // Number of seats taken in a subject
+    public int getSeatsTaken(String subjectId) {
+        await(registrationsLoaded);
+        return seats.taken(IdKeys.lookup(subjectId));
     }
     
     // Set grade for a registered subject
     public void setGrade(String studentId, String subjectId, String grade) {
-        for (RegisteredSubject reg : registrations) {
-            if (reg.getStudentId().equals(studentId) && reg.getSubjectId().equals(subjectId)) {
-                reg.setGrade(grade);
-                saveData();
+        await(registrationsLoaded);
+        long stamp = lock.writeLock();
+        try {
+            if (!updateGrade(studentId, subjectId, grade)) {
                 return;
             }
+            logChange(RegistrationJournal.OP_GRADE, studentId, subjectId, grade);
+        } finally {
+            lock.unlockWrite(stamp);
         }
+        requestPersist();
+    }
+    
+    // Set the grades of several students in one subject under one write lock and persist them together.
+    // Returns the students that are not registered for the subject; their grades are not set.
+    public Set<String> setGrades(String subjectId, Map<String, String> gradesByStudent) {
+        await(registrationsLoaded);
+        Set<String> notRegistered = new LinkedHashSet<>();
+        long stamp = lock.writeLock();
+        try {
+            for (Map.Entry<String, String> entry : gradesByStudent.entrySet()) {
+                String studentId = entry.getKey();
+                if (updateGrade(studentId, subjectId, entry.getValue())) {
+                    logChange(RegistrationJournal.OP_GRADE, studentId, subjectId, entry.getValue());
+                } else {
+                    notRegistered.add(studentId);
+                }
+            }
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+        if (notRegistered.size() < gradesByStudent.size()) {
+            requestPersist();
+        }
+        return notRegistered;
+    }
+    
+    // Create an ungraded registration; callers do it before taking the write lock, as it parses both IDs
+    private static RegisteredSubject newRegistration(String studentId, String subjectId) {
+        return new RegisteredSubject(studentId, StringPool.canonical(subjectId), null);
+    }
+    
+    // Add a registration in memory, returns false if already registered
+    private boolean addRegistration(RegisteredSubject newReg) {
+        if (registrationsByKey.get(IdKeys.pack(newReg.getStudentKey(), newReg.getSubjectKey())) != null) {
+            return false; // Already registered
+        }
+        
+        registrations.add(newReg);
+        indexRegistration(newReg, registrations.size() - 1);
+        registrationsDirty = true;
+        return true;
+    }
+    
+    // Update a grade in memory, returns false if the registration does not exist
+    private boolean updateGrade(String studentId, String subjectId, String grade) {
+        RegisteredSubject reg = findRegistration(studentId, subjectId);
+        if (reg == null) {
+            return false;
+        }
+        
+        reg.setGrade(grade);
+        markCompleted(reg);
+        registrationsDirty = true;
+        return true;
+    }
+    
+    // Find the registration of a student for a subject
+    private RegisteredSubject findRegistration(String studentId, String subjectId) {
+        return registrationsByKey.get(IdKeys.pack(IdKeys.lookup(studentId), IdKeys.lookup(subjectId)));
     }
     
     // Add a new student
     public void addStudent(Student student) {
-        students.add(student);
-        saveData();
+        await(studentsLoaded);
+        StringPool.canonicalize(student);
+        long stamp = lock.writeLock();
+        try {
+            students.add(student);
+            indexStudentKeys(students.size() - 1);
+            indexNewStudent(students.size() - 1);
+            studentsDirty = true;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+        requestPersist();
     }
     
     // Add a new subject
     public void addSubject(Subject subject) {
-        subjects.add(subject);
-        saveData();
+        await(subjectsLoaded);
+        StringPool.canonicalize(subject);
+        long stamp = lock.writeLock();
+        try {
+            subjects.add(subject);
+            subjectsById.putIfAbsent(subject.getSubjectKey(), subject);
+            subjectsDirty = true;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+        requestPersist();
+    }
+    
+    // Add many students under one write lock and persist them together
+    public void addStudents(List<Student> newStudents) {
+        await(studentsLoaded);
+        if (newStudents.isEmpty()) {
+            return;
+        }
+        StringPool.canonicalizeStudents(newStudents);
+        long stamp = lock.writeLock();
+        try {
+            int position = students.size();
+            students.addAll(newStudents);
+            for (; position < students.size(); position++) {
+                indexStudentKeys(position);
+                studentSearchIndex.set(position, students.get(position));
+            }
+            rebuildStudentOrders(); // One sort for the batch costs less than inserting each student
+            studentsDirty = true;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+        requestPersist();
+    }
+    
+    // Add many subjects under one write lock and persist them together
+    public void addSubjects(List<Subject> newSubjects) {
+        await(subjectsLoaded);
+        if (newSubjects.isEmpty()) {
+            return;
+        }
+        StringPool.canonicalizeSubjects(newSubjects);
+        long stamp = lock.writeLock();
+        try {
+            subjects.addAll(newSubjects);
+            for (Subject subject : newSubjects) {
+                subjectsById.putIfAbsent(subject.getSubjectKey(), subject);
+            }
+            subjectsDirty = true;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+        requestPersist();
+    }
+    
+    // Add many registrations, with their grades, under one write lock and persist them together.
+    // Returns the outcome for each registration in order; prerequisites are not checked.
+    public List<RegistrationResult> addRegistrations(List<RegisteredSubject> newRegistrations) {
+        awaitAllLoaded();
+        List<RegistrationResult> results = new ArrayList<>(newRegistrations.size());
+        boolean changed = false;
+        long stamp = lock.writeLock();
+        try {
+            for (RegisteredSubject reg : newRegistrations) {
+                Subject subject = subjectsById.get(reg.getSubjectKey());
+                if (subject == null || studentsById.get(reg.getStudentKey()) == null) {
+                    results.add(RegistrationResult.NOT_FOUND);
+                } else if (findRegistration(reg.getStudentId(), reg.getSubjectId()) != null) {
+                    results.add(RegistrationResult.ALREADY_REGISTERED);
+                } else if (!seats.tryAcquire(subject.getSubjectKey(), subject.getCapacity())) {
+                    results.add(RegistrationResult.FULL);
+                } else {
+                    addRegistration(newRegistration(reg.getStudentId(), reg.getSubjectId()));
+                    logChange(RegistrationJournal.OP_REGISTER, reg.getStudentId(), reg.getSubjectId(), null);
+                    if (reg.isGraded()) {
+                        updateGrade(reg.getStudentId(), reg.getSubjectId(), reg.getGrade());
+                        logChange(RegistrationJournal.OP_GRADE, reg.getStudentId(), reg.getSubjectId(), reg.getGrade());
+                    }
+                    results.add(RegistrationResult.SUCCESS);
+                    changed = true;
+                }
+            }
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+        if (changed) {
+            requestPersist();
+        }
+        return results;
     }
     
     // Add a new curriculum
     public void addCurriculum(SubjectStructure curriculum) {
-        curriculums.add(curriculum);
-        saveData();
+        await(curriculumsLoaded);
+        long stamp = lock.writeLock();
+        try {
+            curriculums.add(curriculum);
+            curriculumsById.putIfAbsent(curriculum.getCurriculumKey(), curriculum);
+            curriculumsDirty = true;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+        requestPersist();
     }
     
     // Update a student
     public void updateStudent(Student student) {
-        for (int i = 0; i < students.size(); i++) {
-            if (students.get(i).getStudentId().equals(student.getStudentId())) {
-                students.set(i, student);
-                saveData();
+        await(studentsLoaded);
+        StringPool.canonicalize(student);
+        long stamp = lock.writeLock();
+        try {
+            Student previous = studentsById.get(student.getStudentKey());
+            if (previous == null) {
                 return;
             }
+            int position = studentPositions.get(student.getStudentKey(), -1);
+            students.set(position, student);
+            reindexStudent(position);
+            studentsById.put(student.getStudentKey(), student);
+            studentsByEmail.remove(indexedEmails.get(position), previous);
+            studentsByEmail.putIfAbsent(student.getEmail(), student);
+            indexedEmails.set(position, student.getEmail());
+            studentsDirty = true;
+        } finally {
+            lock.unlockWrite(stamp);
         }
+        requestPersist();
     }
     
     // Get available subjects for a student to register
     public List<Subject> getAvailableSubjectsForStudent(String studentId) {
+        awaitAllLoaded();
         Student student = getStudentById(studentId);
         if (student == null) {
             return new ArrayList<>();
@@ -453,7 +1565,9 @@ public class DataManager {
             registeredSubjectIds.add(reg.getSubjectId());
         }
         
-        // Check each required subject
+        // Collect the candidate subjects and check all their prerequisites in one query
+        List<Subject> candidates = new ArrayList<>();
+        Set<String> prerequisiteIds = new HashSet<>();
         for (String subjectId : requiredSubjectIds) {
             // Skip if already registered
             if (registeredSubjectIds.contains(subjectId)) {
@@ -465,12 +1579,15 @@ public class DataManager {
                 continue;
             }
             
-            // Check prerequisite
+            candidates.add(subject);
             if (subject.hasPrerequisite()) {
-                if (hasCompletedPrerequisite(studentId, subject.getPrerequisiteId())) {
-                    availableSubjects.add(subject);
-                }
-            } else {
+                prerequisiteIds.add(subject.getPrerequisiteId());
+            }
+        }
+        Set<String> completedPrerequisites = getCompletedSubjects(studentId, prerequisiteIds);
+        
+        for (Subject subject : candidates) {
+            if (!subject.hasPrerequisite() || completedPrerequisites.contains(subject.getPrerequisiteId())) {
                 availableSubjects.add(subject);
             }
         }
@@ -478,39 +1595,164 @@ public class DataManager {
         return availableSubjects;
     }
     
-    // Get count of students registered for a subject
-    public int getRegistrationCountForSubject(String subjectId) {
-        int count = 0;
-        for (RegisteredSubject reg : registrations) {
-            if (reg.getSubjectId().equals(subjectId)) {
-                count++;
+    // Visit every registration with its student and subject, grouped by student in list order.
+    // The students are split into one consecutive range per visitor and the ranges are visited in
+    // parallel. Each range is copied and visited in batches of whole students, grades included, so
+    // the read lock is held for one batch at a time and memory use follows the batch size rather than
+    // the number of registrations. A student's registrations are always seen as they were at one moment,
+    // but changes made during the export show up for the students not copied yet.
+    public void forEachRegistration(List<? extends RegistrationVisitor> visitors) throws IOException {
+        awaitAllLoaded();
+        int count = visitors.size();
+        int studentCount = read(() -> students.size());
+        
+        if (count == 1) {
+            visitRange(0, studentCount, visitors.get(0));
+            return;
+        }
+        
+        ExecutorService exporter = Executors.newFixedThreadPool(count, runnable -> {
+            Thread thread = new Thread(runnable, "DataManager-export");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            CompletableFuture<?>[] tasks = new CompletableFuture<?>[count];
+            for (int i = 0; i < count; i++) {
+                int from = (int) ((long) studentCount * i / count);
+                int to = (int) ((long) studentCount * (i + 1) / count);
+                RegistrationVisitor visitor = visitors.get(i);
+                tasks[i] = CompletableFuture.runAsync(() -> {
+                    try {
+                        visitRange(from, to, visitor);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }, exporter);
+            }
+            CompletableFuture.allOf(tasks).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof UncheckedIOException) {
+                throw ((UncheckedIOException) e.getCause()).getCause();
             }
+            throw e;
+        } finally {
+            exporter.shutdown();
         }
-        return count;
     }
     
-    // Ensure admin user exists in the student list
-    private void ensureAdminExists() {
-        boolean adminExists = false;
-        
-        // Check if admin exists
-        for (Student student : students) {
-            if (student.getEmail().equals("admin@kmitl.ac.th") && student.isAdmin()) {
-                adminExists = true;
-                break;
+    // Visit the registrations of the students in a range of the list, one batch per read lock
+    private void visitRange(int from, int to, RegistrationVisitor visitor) throws IOException {
+        RegistrationRows rows = new RegistrationRows();
+        int next = from;
+        while (next < to) {
+            rows.clear();
+            long stamp = lock.readLock();
+            try {
+                next = copyRegistrations(next, to, rows);
+            } finally {
+                lock.unlockRead(stamp);
+            }
+            rows.visit(visitor);
+        }
+    }
+    
+    // Copy the registrations of students from a list position until the batch is full or the end
+    // of the range is reached, returning the position to continue from; must be called while holding the lock
+    private int copyRegistrations(int from, int to, RegistrationRows rows) {
+        int i = from;
+        while (i < to && rows.size() < EXPORT_BATCH_ROWS) {
+            Student student = students.get(i++);
+            if (studentsById.get(student.getStudentKey()) != student) {
+                continue; // Duplicate ID, its registrations belong to the first student
+            }
+            
+            IntList positions = registrationsByStudent.get(student.getStudentKey());
+            if (positions == null) {
+                continue;
             }
+            for (int j = 0; j < positions.size(); j++) {
+                RegisteredSubject reg = registrations.get(positions.get(j));
+                rows.add(student, subjectsById.get(reg.getSubjectKey()), reg);
+            }
+        }
+        return i;
+    }
+    
+    /**
+     * A batch of registrations copied for an export, with the grades they had when they were copied
+     */
+    private static class RegistrationRows {
+        private final List<Student> students = new ArrayList<>();
+        private final List<Subject> subjects = new ArrayList<>();
+        private final List<RegisteredSubject> registrations = new ArrayList<>();
+        private final List<Grade> grades = new ArrayList<>();
+        
+        void add(Student student, Subject subject, RegisteredSubject reg) {
+            students.add(student);
+            subjects.add(subject);
+            registrations.add(reg);
+            grades.add(reg.getGradeValue());
+        }
+        
+        int size() {
+            return registrations.size();
+        }
+        
+        void clear() {
+            students.clear();
+            subjects.clear();
+            registrations.clear();
+            grades.clear();
         }
         
-        // If admin doesn't exist, add it
-        if (!adminExists) {
+        // Visit the rows; a registration graded since it was copied is passed as a copy with the old grade
+        void visit(RegistrationVisitor visitor) throws IOException {
+            for (int i = 0; i < registrations.size(); i++) {
+                RegisteredSubject reg = registrations.get(i);
+                Grade grade = grades.get(i);
+                if (reg.getGradeValue() != grade) {
+                    reg = new RegisteredSubject(reg.getStudentId(), reg.getSubjectId(), grade.getCode());
+                }
+                visitor.visit(students.get(i), subjects.get(i), reg);
+            }
+        }
+    }
+    
+    // Get count of students registered for a subject
+    public int getRegistrationCountForSubject(String subjectId) {
+        await(registrationsLoaded);
+        return read(() -> {
+            IntList positions = registrationsBySubject.get(IdKeys.lookup(subjectId));
+            return positions == null ? 0 : positions.size();
+        });
+    }
+    
+    // Ensure admin user exists in the student list
+    private void ensureAdminExists() {
+        long stamp = lock.writeLock();
+        try {
+            // Check if admin exists
+            Student existing = studentsByEmail.get("admin@kmitl.ac.th");
+            if (existing != null && existing.isAdmin()) {
+                return;
+            }
+            
+            // If admin doesn't exist, add it
             Student admin = new Student(
                 "69000000", "Mr.", "Admin", "User", 
                 LocalDate.of(1990, 1, 1), "N/A", "admin@kmitl.ac.th", 
                 "", "admin", true
             );
             students.add(admin);
-            saveData(); // Save the updated student list
-            System.out.println("Admin user was added to the system.");
+            indexStudentKeys(students.size() - 1);
+            studentsByEmail.put(admin.getEmail(), admin);
+            indexNewStudent(students.size() - 1);
+            studentsDirty = true;
+        } finally {
+            lock.unlockWrite(stamp);
         }
+        requestPersist(); // Save the updated student list
+        System.out.println("Admin user was added to the system.");
     }
 }
\ No newline at end of file
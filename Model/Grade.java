@@ -0,0 +1,68 @@
+package Model;
+
+/**
+ * Grades that can be given for a registered subject
+ */
+public enum Grade {
+    // UNGRADED comes first so that a registration's stored ordinal is 0 until it is graded
+    UNGRADED(null, "Not graded"),
+    A("A"),
+    B_PLUS("B+"),
+    B("B"),
+    C_PLUS("C+"),
+    C("C"),
+    D_PLUS("D+"),
+    D("D"),
+    F("F");
+
+    private static final Grade[] VALUES = values();
+
+    private final String code;
+    private final String displayName;
+
+    Grade(String code) {
+        this(code, code);
+    }
+
+    Grade(String code, String displayName) {
+        this.code = code;
+        this.displayName = displayName;
+    }
+
+    // Get the grade for a code such as "B+"; null or empty means not graded, returns null if invalid
+    public static Grade fromCode(String code) {
+        if (code == null || code.isEmpty()) {
+            return UNGRADED;
+        }
+        switch (code) {
+            case "A": return A;
+            case "B+": return B_PLUS;
+            case "B": return B;
+            case "C+": return C_PLUS;
+            case "C": return C;
+            case "D+": return D_PLUS;
+            case "D": return D;
+            case "F": return F;
+            default: return null;
+        }
+    }
+
+    // Get the grade stored as the given ordinal
+    static Grade fromOrdinal(int ordinal) {
+        return VALUES[ordinal];
+    }
+
+    // Code as stored in the data files, null if not graded
+    public String getCode() {
+        return code;
+    }
+
+    // Text shown in the views
+    public String getDisplayName() {
+        return displayName;
+    }
+
+    public boolean isGraded() {
+        return this != UNGRADED;
+    }
+}
@@ -0,0 +1,63 @@
+package Model;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Int keys for model IDs. An 8-digit numeric ID maps to its value, any other ID is given
+ * a negative key the first time it is seen, so every ID has a key without allocation
+ * in the common case.
+ */
+final class IdKeys {
+    // Returned by lookup for an ID that has never been given a key; never used as a key
+    static final int NONE = Integer.MIN_VALUE;
+
+    // Key of a null ID
+    static final int NULL_KEY = -1;
+
+    private static final Map<String, Integer> otherKeys = new ConcurrentHashMap<>();
+    private static final AtomicInteger nextOtherKey = new AtomicInteger(-2);
+
+    private IdKeys() {
+    }
+
+    // Key of an ID, giving it a new key if it is not numeric and has not been seen before
+    static int of(String id) {
+        if (id == null) {
+            return NULL_KEY;
+        }
+        int key = parse(id);
+        return key >= 0 ? key : otherKeys.computeIfAbsent(id, k -> nextOtherKey.getAndDecrement());
+    }
+
+    // Key of an ID, or NONE if it cannot belong to any record
+    static int lookup(String id) {
+        if (id == null) {
+            return NULL_KEY;
+        }
+        int key = parse(id);
+        return key >= 0 ? key : otherKeys.getOrDefault(id, NONE);
+    }
+
+    // Convert an 8-digit ID to an int, returns -1 for anything else
+    static int parse(String id) {
+        if (id == null || id.length() != 8) {
+            return -1;
+        }
+        int value = 0;
+        for (int i = 0; i < 8; i++) {
+            char c = id.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            value = value * 10 + (c - '0');
+        }
+        return value;
+    }
+
+    // Pack a student key and a subject key into one long
+    static long pack(int studentKey, int subjectKey) {
+        return ((long) studentKey << 32) | (subjectKey & 0xFFFFFFFFL);
+    }
+}
@@ -0,0 +1,92 @@
+package Model;
+
+import java.util.Arrays;
+
+/**
+ * Open-addressing hash map from primitive int keys to int values, using linear probing.
+ * Integer.MIN_VALUE marks empty slots and cannot be used as a key.
+ */
+class IntIntMap {
+    private static final int EMPTY = Integer.MIN_VALUE;
+    private static final float LOAD_FACTOR = 0.5f;
+
+    private int[] keys;
+    private int[] values;
+    private int size;
+    private int mask;
+    private int resizeAt;
+
+    IntIntMap() {
+        this(16);
+    }
+
+    IntIntMap(int expectedSize) {
+        allocate(Integer.highestOneBit(Math.max(4, (int) (expectedSize / LOAD_FACTOR)) - 1) << 1);
+    }
+
+    // Get the value for a key, or the given default if there is none
+    // The probe is bounded for optimistic readers, as in IntObjectMap
+    int get(int key, int defaultValue) {
+        int[] table = keys;
+        int tableMask = table.length - 1;
+        int slot = IntObjectMap.mix(key) & tableMask;
+        for (int probes = 0; probes < table.length && table[slot] != EMPTY; probes++) {
+            if (table[slot] == key) {
+                return values[slot];
+            }
+            slot = (slot + 1) & tableMask;
+        }
+        return defaultValue;
+    }
+
+    // Associate a value with a key
+    void put(int key, int value) {
+        if (key == EMPTY) {
+            throw new IllegalArgumentException("Reserved key: " + key);
+        }
+
+        int slot = IntObjectMap.mix(key) & mask;
+        while (keys[slot] != EMPTY) {
+            if (keys[slot] == key) {
+                values[slot] = value;
+                return;
+            }
+            slot = (slot + 1) & mask;
+        }
+
+        keys[slot] = key;
+        values[slot] = value;
+        if (++size > resizeAt) {
+            rehash(keys.length << 1);
+        }
+    }
+
+    int size() {
+        return size;
+    }
+
+    private void allocate(int capacity) {
+        keys = new int[capacity];
+        values = new int[capacity];
+        Arrays.fill(keys, EMPTY);
+        mask = capacity - 1;
+        resizeAt = (int) (capacity * LOAD_FACTOR);
+    }
+
+    private void rehash(int capacity) {
+        int[] oldKeys = keys;
+        int[] oldValues = values;
+        allocate(capacity);
+
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != EMPTY) {
+                int slot = IntObjectMap.mix(oldKeys[i]) & mask;
+                while (keys[slot] != EMPTY) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+}
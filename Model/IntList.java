@@ -0,0 +1,86 @@
+package Model;
+
+import java.util.Arrays;
+
+/**
+ * Growable list of primitive ints
+ */
+class IntList {
+    private int[] elements;
+    private int size;
+
+    IntList() {
+        this(4);
+    }
+
+    IntList(int capacity) {
+        elements = new int[Math.max(1, capacity)];
+    }
+
+    void add(int value) {
+        if (size == elements.length) {
+            elements = Arrays.copyOf(elements, size + (size >> 1) + 1);
+        }
+        elements[size++] = value;
+    }
+
+    // Insert a value at an index, moving the later elements up
+    void insert(int index, int value) {
+        if (index > size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", size: " + size);
+        }
+        if (size == elements.length) {
+            elements = Arrays.copyOf(elements, size + (size >> 1) + 1);
+        }
+        System.arraycopy(elements, index, elements, index + 1, size - index);
+        elements[index] = value;
+        size++;
+    }
+
+    // Remove the value at an index, moving the later elements down
+    void removeAt(int index) {
+        if (index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", size: " + size);
+        }
+        System.arraycopy(elements, index + 1, elements, index, size - index - 1);
+        size--;
+    }
+
+    // Insert a value into a list kept in ascending order, unless it is already there
+    void addSorted(int value) {
+        int index = Arrays.binarySearch(elements, 0, size, value);
+        if (index < 0) {
+            insert(-index - 1, value);
+        }
+    }
+
+    // Remove a value from a list kept in ascending order, returns false if it is not there
+    boolean removeSorted(int value) {
+        int index = Arrays.binarySearch(elements, 0, size, value);
+        if (index < 0) {
+            return false;
+        }
+        removeAt(index);
+        return true;
+    }
+
+    // Check if a list kept in ascending order contains a value
+    boolean containsSorted(int value) {
+        return Arrays.binarySearch(elements, 0, size, value) >= 0;
+    }
+
+    int get(int index) {
+        if (index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", size: " + size);
+        }
+        return elements[index];
+    }
+
+    int size() {
+        return size;
+    }
+
+    int[] toArray() {
+        return Arrays.copyOf(elements, size);
+    }
+}
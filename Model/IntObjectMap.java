@@ -0,0 +1,126 @@
+package Model;
+
+import java.util.Arrays;
+
+/**
+ * Open-addressing hash map from primitive int keys to objects, using linear probing.
+ * Integer.MIN_VALUE marks empty slots and cannot be used as a key.
+ */
+class IntObjectMap<V> {
+    private static final int EMPTY = Integer.MIN_VALUE;
+    private static final float LOAD_FACTOR = 0.5f;
+
+    private int[] keys;
+    private Object[] values;
+    private int size;
+    private int mask;
+    private int resizeAt;
+
+    IntObjectMap() {
+        this(16);
+    }
+
+    IntObjectMap(int expectedSize) {
+        allocate(Integer.highestOneBit(Math.max(4, (int) (expectedSize / LOAD_FACTOR)) - 1) << 1);
+    }
+
+    // Get the value for a key, or null if there is none
+    @SuppressWarnings("unchecked")
+    V get(int key) {
+        int slot = slotOf(key);
+        return slot >= 0 ? (V) values[slot] : null;
+    }
+
+    // Associate a value with a key, returns the previous value or null
+    @SuppressWarnings("unchecked")
+    V put(int key, V value) {
+        int slot = insertionSlot(key);
+        V previous = (V) values[slot];
+        values[slot] = value;
+        if (keys[slot] == EMPTY) {
+            keys[slot] = key;
+            if (++size > resizeAt) {
+                rehash(keys.length << 1);
+            }
+        }
+        return previous;
+    }
+
+    // Associate a value with a key unless it already has one, returns the existing value or null
+    @SuppressWarnings("unchecked")
+    V putIfAbsent(int key, V value) {
+        int slot = insertionSlot(key);
+        if (keys[slot] != EMPTY) {
+            return (V) values[slot];
+        }
+        keys[slot] = key;
+        values[slot] = value;
+        if (++size > resizeAt) {
+            rehash(keys.length << 1);
+        }
+        return null;
+    }
+
+    int size() {
+        return size;
+    }
+
+    // Slot holding the key, or -1 if it is not in the map.
+    // An optimistic reader may see a table that is being rehashed, so the probe works on one
+    // array and is bounded by its length; a wrong answer is then caught by the lock's validation.
+    private int slotOf(int key) {
+        int[] table = keys;
+        int tableMask = table.length - 1;
+        int slot = mix(key) & tableMask;
+        for (int probes = 0; probes < table.length && table[slot] != EMPTY; probes++) {
+            if (table[slot] == key) {
+                return slot;
+            }
+            slot = (slot + 1) & tableMask;
+        }
+        return -1;
+    }
+
+    // Slot holding the key, or the empty slot where it would go
+    private int insertionSlot(int key) {
+        if (key == EMPTY) {
+            throw new IllegalArgumentException("Reserved key: " + key);
+        }
+        int slot = mix(key) & mask;
+        while (keys[slot] != EMPTY && keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private void allocate(int capacity) {
+        keys = new int[capacity];
+        values = new Object[capacity];
+        Arrays.fill(keys, EMPTY);
+        mask = capacity - 1;
+        resizeAt = (int) (capacity * LOAD_FACTOR);
+    }
+
+    private void rehash(int capacity) {
+        int[] oldKeys = keys;
+        Object[] oldValues = values;
+        allocate(capacity);
+
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != EMPTY) {
+                int slot = mix(oldKeys[i]) & mask;
+                while (keys[slot] != EMPTY) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+
+    // Spread the bits of the key so that sequential IDs do not cluster
+    static int mix(int key) {
+        int h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
@@ -1,39 +1,56 @@
 package Model;
 
+import java.io.IOException;
+import java.io.InvalidObjectException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamField;
+
 /**
  * RegisteredSubject model representing subjects registered by students with their grades
  */
 public class RegisteredSubject extends BaseModel {
+    private static final long serialVersionUID = -5727389094844737020L;
+    
+    // Serialized form is unchanged: the grade is still written as its String code
+    private static final ObjectStreamField[] serialPersistentFields = {
+        new ObjectStreamField("studentId", String.class),
+        new ObjectStreamField("subjectId", String.class),
+        new ObjectStreamField("grade", String.class)
+    };
+    
     private String studentId; // Foreign key to Student
     private String subjectId; // Foreign key to Subject
-    private String grade; // A, B+, B, C+, C, D+, D, F, or null if not graded yet
+    private byte grade; // Ordinal of the Grade, 0 (UNGRADED) if not graded yet
+    
+    // Int forms of the foreign keys used by the indexes
+    private transient int studentKey = IdKeys.NULL_KEY;
+    private transient int subjectKey = IdKeys.NULL_KEY;
     
     // Constructor
     public RegisteredSubject(String studentId, String subjectId, String grade) {
         this.studentId = studentId;
         this.subjectId = subjectId;
-        this.grade = grade;
+        this.grade = (byte) parseGrade(grade).ordinal();
+        this.studentKey = IdKeys.of(studentId);
+        this.subjectKey = IdKeys.of(subjectId);
     }
     
     // Default constructor
     public RegisteredSubject() {
     }
     
-    // Valid grades
-    public static final String[] VALID_GRADES = {"A", "B+", "B", "C+", "C", "D+", "D", "F"};
-    
     // Check if a grade is valid
     public static boolean isValidGrade(String grade) {
-        if (grade == null || grade.isEmpty()) {
-            return true; // Allow empty grade (not graded yet)
-        }
-        
-        for (String validGrade : VALID_GRADES) {
-            if (validGrade.equals(grade)) {
-                return true;
-            }
+        return Grade.fromCode(grade) != null; // Empty means not graded yet and is allowed
+    }
+    
+    private static Grade parseGrade(String grade) {
+        Grade value = Grade.fromCode(grade);
+        if (value == null) {
+            throw new IllegalArgumentException("Invalid grade: " + grade);
         }
-        return false;
+        return value;
     }
     
     // Getters and Setters
@@ -43,6 +60,7 @@ public class RegisteredSubject extends BaseModel {
 
     public void setStudentId(String studentId) {
         this.studentId = studentId;
+        this.studentKey = IdKeys.of(studentId);
     }
 
     public String getSubjectId() {
@@ -51,26 +69,63 @@ public class RegisteredSubject extends BaseModel {
 
     public void setSubjectId(String subjectId) {
         this.subjectId = subjectId;
+        this.subjectKey = IdKeys.of(subjectId);
     }
 
+    // Grade code such as "B+", or null if not graded yet
     public String getGrade() {
-        return grade;
+        return getGradeValue().getCode();
     }
 
     public void setGrade(String grade) {
-        if (!isValidGrade(grade)) {
-            throw new IllegalArgumentException("Invalid grade: " + grade);
-        }
-        this.grade = grade;
+        setGrade(parseGrade(grade));
+    }
+    
+    public Grade getGradeValue() {
+        return Grade.fromOrdinal(grade);
+    }
+    
+    public void setGrade(Grade grade) {
+        this.grade = (byte) grade.ordinal();
+    }
+    
+    int getStudentKey() {
+        return studentKey;
+    }
+    
+    int getSubjectKey() {
+        return subjectKey;
     }
     
     // Check if the subject is graded
     public boolean isGraded() {
-        return grade != null && !grade.isEmpty();
+        return grade != 0;
     }
     
     @Override
     public String toString() {
-        return studentId + " - " + subjectId + ": " + (grade == null ? "Not graded" : grade);
+        return studentId + " - " + subjectId + ": " + getGradeValue().getDisplayName();
+    }
+    
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        ObjectOutputStream.PutField fields = out.putFields();
+        fields.put("studentId", studentId);
+        fields.put("subjectId", subjectId);
+        fields.put("grade", getGrade());
+        out.writeFields();
+    }
+    
+    // Read the String grade of the serialized form and restore the cached keys
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        ObjectInputStream.GetField fields = in.readFields();
+        studentId = (String) fields.get("studentId", null);
+        subjectId = (String) fields.get("subjectId", null);
+        Grade value = Grade.fromCode((String) fields.get("grade", null));
+        if (value == null) {
+            throw new InvalidObjectException("Invalid grade: " + fields.get("grade", null));
+        }
+        grade = (byte) value.ordinal();
+        studentKey = IdKeys.of(studentId);
+        subjectKey = IdKeys.of(subjectId);
     }
 }
\ No newline at end of file
@@ -0,0 +1,188 @@
+package Model;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Append-only journal of registration and grade changes made since the last checkpoint.
+ * New records go to the active segment; a checkpoint seals it as a numbered segment
+ * that is deleted once the snapshot covering it is durable.
+ * Records are appended to a memory buffer. The caller takes them out while holding its lock
+ * and writes them to disk after releasing it, so appends never wait for the disk.
+ */
+class RegistrationJournal {
+    static final byte OP_REGISTER = 1;
+    static final byte OP_GRADE = 2;
+
+    // Callback used to apply records while replaying the journal
+    interface RecordHandler {
+        void apply(byte op, String studentId, String subjectId, String grade);
+    }
+
+    private final File file;
+    private FileOutputStream fileOut;
+    // Records appended since they were last taken
+    private final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+    private final DataOutputStream out = new DataOutputStream(buffer);
+    private int recordCount;
+
+    RegistrationJournal(String filePath) {
+        this.file = new File(filePath);
+    }
+
+    // Append one record: op byte followed by student ID, subject ID and grade.
+    // The record stays in memory until it is taken and written.
+    void append(byte op, String studentId, String subjectId, String grade) throws IOException {
+        out.writeByte(op);
+        out.writeUTF(studentId);
+        out.writeUTF(subjectId);
+        out.writeUTF(grade == null ? "" : grade);
+        recordCount++;
+    }
+
+    // Take the records appended so far, to be passed to write() or rotate()
+    byte[] takeBuffered() {
+        byte[] records = buffer.toByteArray();
+        buffer.reset();
+        return records;
+    }
+
+    // Take the records appended so far and start counting for the next checkpoint
+    byte[] seal() {
+        recordCount = 0;
+        return takeBuffered();
+    }
+
+    // Write taken records to the active segment and force them to disk.
+    // Records must be written in the order they were taken.
+    void write(byte[] records) throws IOException {
+        if (records.length == 0) {
+            return;
+        }
+        if (fileOut == null) {
+            fileOut = new FileOutputStream(file, true);
+        }
+        fileOut.write(records);
+        fileOut.getFD().sync();
+    }
+
+    // Replay every complete record in the sealed segments and then the active one
+    int replay(RecordHandler handler) throws IOException {
+        int count = 0;
+        for (long segment : sealedSegments()) {
+            count += replayFile(segmentFile(segment), handler);
+        }
+        count += replayFile(file, handler);
+
+        recordCount = count;
+        return count;
+    }
+
+    // Write the records taken by seal() and seal the active segment, so that new records start
+    // a fresh one. Returns the highest sealed segment number, or 0 if there is none.
+    long rotate(byte[] records) throws IOException {
+        write(records);
+        close();
+
+        List<Long> sealed = sealedSegments();
+        long last = sealed.isEmpty() ? 0 : sealed.get(sealed.size() - 1);
+        if (!file.exists() || file.length() == 0) {
+            return last;
+        }
+
+        File target = segmentFile(last + 1);
+        Files.move(file.toPath(), target.toPath(), StandardCopyOption.ATOMIC_MOVE);
+        return last + 1;
+    }
+
+    // Delete sealed segments up to and including the given number
+    void deleteSealed(long upTo) throws IOException {
+        for (long segment : sealedSegments()) {
+            if (segment <= upTo) {
+                Files.deleteIfExists(segmentFile(segment).toPath());
+            }
+        }
+    }
+
+    // Close the active segment
+    void close() throws IOException {
+        if (fileOut != null) {
+            fileOut.close();
+            fileOut = null;
+        }
+    }
+
+    // Number of records written since the last checkpoint
+    int size() {
+        return recordCount;
+    }
+
+    // Replay one segment, dropping a torn record at the tail
+    private int replayFile(File segment, RecordHandler handler) throws IOException {
+        if (!segment.exists()) {
+            return 0;
+        }
+
+        byte[] data = Files.readAllBytes(segment.toPath());
+        ByteArrayInputStream bytes = new ByteArrayInputStream(data);
+        DataInputStream in = new DataInputStream(bytes);
+        int validLength = 0;
+        int count = 0;
+
+        while (bytes.available() > 0) {
+            try {
+                byte op = in.readByte();
+                String studentId = in.readUTF();
+                String subjectId = in.readUTF();
+                String grade = in.readUTF();
+                if (op != OP_REGISTER && op != OP_GRADE) {
+                    break; // Corrupt record, ignore the rest of the segment
+                }
+                handler.apply(op, studentId, subjectId, grade.isEmpty() ? null : grade);
+            } catch (EOFException e) {
+                break; // Incomplete record from an interrupted write
+            }
+            validLength = data.length - bytes.available();
+            count++;
+        }
+
+        // Cut off anything after the last complete record so new appends stay aligned
+        if (validLength < data.length) {
+            try (RandomAccessFile raf = new RandomAccessFile(segment, "rw")) {
+                raf.setLength(validLength);
+            }
+        }
+        return count;
+    }
+
+    private File segmentFile(long segment) {
+        return new File(file.getPath() + "." + segment);
+    }
+
+    // Numbers of the sealed segments in ascending order
+    private List<Long> sealedSegments() {
+        List<Long> segments = new ArrayList<>();
+        File dir = file.getAbsoluteFile().getParentFile();
+        String prefix = file.getName() + ".";
+        String[] names = dir.list();
+        if (names == null) {
+            return segments;
+        }
+
+        for (String name : names) {
+            if (name.startsWith(prefix)) {
+                try {
+                    segments.add(Long.parseLong(name.substring(prefix.length())));
+                } catch (NumberFormatException e) {
+                    // Not a journal segment
+                }
+            }
+        }
+        Collections.sort(segments);
+        return segments;
+    }
+}
@@ -0,0 +1,12 @@
+package Model;
+
+/**
+ * Outcome of a subject registration
+ */
+public enum RegistrationResult {
+    SUCCESS,
+    NOT_FOUND,
+    PREREQUISITE_NOT_MET,
+    ALREADY_REGISTERED,
+    FULL
+}
@@ -0,0 +1,54 @@
+package Model;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Lock-free count of the seats taken in each subject. A seat is taken with compare-and-set
+ * before the registration is added, so a subject is never oversold however many threads
+ * register at once, and registrations for a full subject are turned away without locking.
+ */
+class SeatAllocator {
+    // Seats taken by subject key
+    private volatile ConcurrentHashMap<Integer, AtomicInteger> taken = new ConcurrentHashMap<>();
+
+    // Take a seat, returns false if the subject is full; a capacity of 0 means unlimited
+    boolean tryAcquire(int subjectKey, int capacity) {
+        AtomicInteger counter = counterFor(subjectKey);
+        while (true) {
+            int current = counter.get();
+            if (capacity > 0 && current >= capacity) {
+                return false;
+            }
+            if (counter.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    // Give back a seat taken by a registration that was not added after all
+    void release(int subjectKey) {
+        counterFor(subjectKey).decrementAndGet();
+    }
+
+    // Number of seats taken in a subject
+    int taken(int subjectKey) {
+        AtomicInteger counter = taken.get(subjectKey);
+        return counter == null ? 0 : counter.get();
+    }
+
+    // Recount the seats from the registrations; only called while loading
+    void reset(List<RegisteredSubject> registrations) {
+        ConcurrentHashMap<Integer, AtomicInteger> counts = new ConcurrentHashMap<>();
+        for (RegisteredSubject reg : registrations) {
+            counts.computeIfAbsent(reg.getSubjectKey(), key -> new AtomicInteger()).incrementAndGet();
+        }
+        taken = counts;
+    }
+
+    private AtomicInteger counterFor(int subjectKey) {
+        AtomicInteger counter = taken.get(subjectKey);
+        return counter != null ? counter : taken.computeIfAbsent(subjectKey, key -> new AtomicInteger());
+    }
+}
@@ -0,0 +1,64 @@
+package Model;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Canonical instances of low-cardinality strings (school, title, curriculum ID, instructor,
+ * ...) so that equal values share one object instead of one copy per record.
+ * Only use it for fields with few distinct values; every value added is kept for good.
+ */
+public final class StringPool {
+    private static final Map<String, String> pool = new ConcurrentHashMap<>();
+
+    private StringPool() {
+    }
+
+    // Get the canonical instance of a string
+    public static String canonical(String value) {
+        if (value == null) {
+            return null;
+        }
+        String existing = pool.putIfAbsent(value, value);
+        return existing != null ? existing : value;
+    }
+
+    // Number of distinct strings in the pool
+    public static int size() {
+        return pool.size();
+    }
+
+    public static void canonicalize(Student student) {
+        student.setTitle(canonical(student.getTitle()));
+        student.setSchool(canonical(student.getSchool()));
+        student.setCurriculumId(canonical(student.getCurriculumId()));
+    }
+
+    public static void canonicalize(Subject subject) {
+        subject.setInstructor(canonical(subject.getInstructor()));
+        subject.setPrerequisiteId(canonical(subject.getPrerequisiteId()));
+    }
+
+    public static void canonicalize(RegisteredSubject registration) {
+        registration.setSubjectId(canonical(registration.getSubjectId()));
+    }
+
+    public static void canonicalizeStudents(List<Student> students) {
+        for (Student student : students) {
+            canonicalize(student);
+        }
+    }
+
+    public static void canonicalizeSubjects(List<Subject> subjects) {
+        for (Subject subject : subjects) {
+            canonicalize(subject);
+        }
+    }
+
+    public static void canonicalizeRegistrations(List<RegisteredSubject> registrations) {
+        for (RegisteredSubject registration : registrations) {
+            canonicalize(registration);
+        }
+    }
+}
@@ -1,5 +1,7 @@
 package Model;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
 import java.time.LocalDate;
 import java.time.Period;
 
@@ -7,6 +9,8 @@ import java.time.Period;
  * Student model representing high school students who can register for courses
  */
 public class Student extends BaseModel {
+    private static final long serialVersionUID = -3611786022221816107L;
+    
     private String studentId; // 8 digits, starting with "69"
     private String title; // Title/prefix (Mr., Ms., etc.)
     private String firstName;
@@ -18,11 +22,14 @@ public class Student extends BaseModel {
     private String password; // For authentication
     private boolean isAdmin; // Flag to identify admin users
     
+    private transient int studentKey = IdKeys.NULL_KEY; // Int form of studentId used by the indexes
+    
     // Constructor
     public Student(String studentId, String title, String firstName, String lastName, 
                   LocalDate birthDate, String school, String email, String curriculumId,
                   String password, boolean isAdmin) {
         this.studentId = studentId;
+        this.studentKey = IdKeys.of(studentId);
         this.title = title;
         this.firstName = firstName;
         this.lastName = lastName;
@@ -58,6 +65,11 @@ public class Student extends BaseModel {
 
     public void setStudentId(String studentId) {
         this.studentId = studentId;
+        this.studentKey = IdKeys.of(studentId);
+    }
+    
+    int getStudentKey() {
+        return studentKey;
     }
 
     public String getTitle() {
@@ -140,4 +152,10 @@ public class Student extends BaseModel {
     public String toString() {
         return studentId + ": " + getFullName();
     }
+    
+    // Restore the cached key after deserialization
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        studentKey = IdKeys.of(studentId);
+    }
 }
\ No newline at end of file
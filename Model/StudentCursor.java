@@ -0,0 +1,30 @@
+package Model;
+
+import java.util.List;
+
+/**
+ * Result of a student query, read a page at a time.
+ * Only the positions of the matching students are kept; the students themselves are read
+ * when a page is fetched, so a page shows their current details.
+ */
+public class StudentCursor {
+    private final DataManager dataManager;
+    private final int[] positions;
+    
+    StudentCursor(DataManager dataManager, int[] positions) {
+        this.dataManager = dataManager;
+        this.positions = positions;
+    }
+    
+    // Number of students that matched the query
+    public int size() {
+        return positions.length;
+    }
+    
+    // Get up to limit students starting at offset, fewer at the end of the result
+    public List<Student> getPage(int offset, int limit) {
+        int from = Math.max(0, Math.min(offset, positions.length));
+        int to = (int) Math.min((long) from + limit, positions.length);
+        return dataManager.studentsAt(positions, from, to);
+    }
+}
\ No newline at end of file
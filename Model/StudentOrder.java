@@ -0,0 +1,100 @@
+package Model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Student list positions kept sorted in one StudentSort order, ties in list order.
+ * The sort key of each position is kept as it was when the student was indexed, so a student
+ * that was edited in place can still be found under its old key by binary search.
+ */
+class StudentOrder {
+    private final StudentSort sort;
+    private final Comparator<Object> keyOrder;
+    // Sort key for each list position
+    private final List<Object> keys = new ArrayList<>();
+    // Positions in sort order
+    private IntList order = new IntList();
+
+    StudentOrder(StudentSort sort) {
+        this.sort = sort;
+        this.keyOrder = sort.getKeyOrder();
+    }
+
+    // Sort all students, replacing what was indexed before
+    void rebuild(List<Student> students) {
+        keys.clear();
+        Integer[] positions = new Integer[students.size()];
+        for (int i = 0; i < positions.length; i++) {
+            keys.add(sort.keyOf(students.get(i)));
+            positions[i] = i;
+        }
+        Arrays.sort(positions, (a, b) -> keyOrder.compare(keys.get(a), keys.get(b))); // Stable, so ties stay in list order
+
+        IntList sorted = new IntList(positions.length);
+        for (Integer position : positions) {
+            sorted.add(position);
+        }
+        order = sorted;
+    }
+
+    // Index a student just appended to the list
+    void add(int position, Student student) {
+        if (position != keys.size()) {
+            throw new IndexOutOfBoundsException("Position: " + position + ", size: " + keys.size());
+        }
+        Object key = sort.keyOf(student);
+        keys.add(key);
+        order.insert(-search(key, position) - 1, position);
+    }
+
+    // Move a student that replaced the one at a position, or was edited there, to its new place
+    void update(int position, Student student) {
+        Object key = sort.keyOf(student);
+        Object previous = keys.get(position);
+        if (keyOrder.compare(previous, key) == 0) {
+            keys.set(position, key);
+            return; // Ties are ordered by position, so the place does not change
+        }
+
+        int index = search(previous, position);
+        if (index >= 0) {
+            order.removeAt(index);
+        }
+        keys.set(position, key);
+        order.insert(-search(key, position) - 1, position);
+    }
+
+    int size() {
+        return order.size();
+    }
+
+    // Position at an index of the sort order
+    int get(int index) {
+        return order.get(index);
+    }
+
+    // Binary search for a key and position: the index where they are, or -(insertion point) - 1
+    private int search(Object key, int position) {
+        int low = 0;
+        int high = order.size() - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            int other = order.get(middle);
+            int result = keyOrder.compare(keys.get(other), key);
+            if (result == 0) {
+                result = Integer.compare(other, position);
+            }
+            if (result < 0) {
+                low = middle + 1;
+            } else if (result > 0) {
+                high = middle - 1;
+            } else {
+                return middle;
+            }
+        }
+        return -(low + 1);
+    }
+}
@@ -0,0 +1,44 @@
+package Model;
+
+/**
+ * Filter and sort order for a paged student query. Admin users never match.
+ */
+public class StudentQuery {
+    private final String school; // null for all schools
+    private final String[] searchWords; // Each must occur in the ID or full name, empty for all students
+    private final StudentSort sort;
+    private final boolean descending; // Reverses the sort order
+    
+    public StudentQuery(String school, String searchText, StudentSort sort) {
+        this(school, searchText, sort, false);
+    }
+    
+    public StudentQuery(String school, String searchText, StudentSort sort, boolean descending) {
+        this.school = school;
+        this.searchWords = TrigramIndex.wordsOf(searchText);
+        this.sort = sort;
+        this.descending = descending;
+    }
+    
+    public String getSchool() {
+        return school;
+    }
+    
+    // Lowercase words of the search text, empty for all students
+    String[] getSearchWords() {
+        return searchWords;
+    }
+    
+    public StudentSort getSort() {
+        return sort;
+    }
+    
+    public boolean isDescending() {
+        return descending;
+    }
+    
+    // Check the school and admin filters; the search words are matched through the search index
+    boolean matchesFilters(Student student) {
+        return !student.isAdmin() && (school == null || school.equals(student.getSchool()));
+    }
+}
\ No newline at end of file
@@ -0,0 +1,43 @@
+package Model;
+
+import java.time.LocalDate;
+import java.util.Comparator;
+import java.util.function.Function;
+
+/**
+ * Sort orders for student queries. Each order compares a key computed once per student,
+ * so a list can be sorted without building names again for every comparison.
+ */
+public enum StudentSort {
+    // By full name, as shown in the student list
+    NAME(Student::getFullName, Comparator.<String>naturalOrder()),
+    // Youngest first; comparing birth dates avoids computing every student's age
+    AGE(Student::getBirthDate, Comparator.nullsFirst(Comparator.<LocalDate>reverseOrder())),
+    // By school, then by full name within each school; the separator sorts below every other character
+    SCHOOL_NAME(student -> (student.getSchool() == null ? "" : student.getSchool()) + '\u0000' + student.getFullName(),
+            Comparator.<String>naturalOrder());
+    
+    private final Function<Student, Object> key;
+    private final Comparator<Object> keyOrder;
+    private final Comparator<Student> comparator;
+    
+    @SuppressWarnings("unchecked")
+    <K> StudentSort(Function<Student, K> key, Comparator<? super K> keyOrder) {
+        this.key = (Function<Student, Object>) key;
+        this.keyOrder = (Comparator<Object>) keyOrder;
+        this.comparator = (a, b) -> this.keyOrder.compare(this.key.apply(a), this.key.apply(b));
+    }
+    
+    public Comparator<Student> getComparator() {
+        return comparator;
+    }
+    
+    // Sort key of a student, to be compared with getKeyOrder
+    Object keyOf(Student student) {
+        return key.apply(student);
+    }
+    
+    Comparator<Object> getKeyOrder() {
+        return keyOrder;
+    }
+}
\ No newline at end of file
@@ -1,22 +1,38 @@
 package Model;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
+
 /**
  * Subject model representing courses that students can register for
  */
 public class Subject extends BaseModel {
+    private static final long serialVersionUID = 8277096966022989752L;
+    
     private String subjectId; // 8 digits (0550X or 9069X)
     private String subjectName;
     private int credits; // > 0
     private String instructor;
     private String prerequisiteId; // Foreign key to another Subject, if applicable
+    private int capacity; // Maximum number of registrations, 0 for unlimited
+    
+    private transient int subjectKey = IdKeys.NULL_KEY; // Int form of subjectId used by the indexes
     
     // Constructor
     public Subject(String subjectId, String subjectName, int credits, String instructor, String prerequisiteId) {
+        this(subjectId, subjectName, credits, instructor, prerequisiteId, 0);
+    }
+    
+    // Constructor with a seat capacity
+    public Subject(String subjectId, String subjectName, int credits, String instructor, String prerequisiteId,
+                   int capacity) {
         this.subjectId = subjectId;
+        this.subjectKey = IdKeys.of(subjectId);
         this.subjectName = subjectName;
         this.credits = credits;
         this.instructor = instructor;
         this.prerequisiteId = prerequisiteId;
+        this.capacity = capacity;
     }
     
     // Default constructor
@@ -30,6 +46,11 @@ public class Subject extends BaseModel {
 
     public void setSubjectId(String subjectId) {
         this.subjectId = subjectId;
+        this.subjectKey = IdKeys.of(subjectId);
+    }
+    
+    int getSubjectKey() {
+        return subjectKey;
     }
 
     public String getSubjectName() {
@@ -64,6 +85,18 @@ public class Subject extends BaseModel {
         this.prerequisiteId = prerequisiteId;
     }
     
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public void setCapacity(int capacity) {
+        this.capacity = capacity;
+    }
+    
+    public boolean hasCapacityLimit() {
+        return capacity > 0;
+    }
+    
     public boolean hasPrerequisite() {
         return prerequisiteId != null && !prerequisiteId.isEmpty();
     }
@@ -72,4 +105,10 @@ public class Subject extends BaseModel {
     public String toString() {
         return subjectId + ": " + subjectName + " (" + credits + " credits)";
     }
+    
+    // Restore the cached key after deserialization
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        subjectKey = IdKeys.of(subjectId);
+    }
 }
\ No newline at end of file
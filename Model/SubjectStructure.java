@@ -1,5 +1,7 @@
 package Model;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -7,15 +9,20 @@ import java.util.List;
  * SubjectStructure model representing the curriculum structure for each program
  */
 public class SubjectStructure extends BaseModel {
+    private static final long serialVersionUID = -8416963778952974165L;
+    
     private String curriculumId; // 8 digits, not starting with 0
     private String curriculumName;
     private String departmentName;
     private List<String> requiredSubjectIds = new ArrayList<>(); // List of required subject IDs
     private List<Integer> semesters = new ArrayList<>(); // Corresponding semesters (1 or 2) for each subject
     
+    private transient int curriculumKey = IdKeys.NULL_KEY; // Int form of curriculumId used by the indexes
+    
     // Constructor
     public SubjectStructure(String curriculumId, String curriculumName, String departmentName) {
         this.curriculumId = curriculumId;
+        this.curriculumKey = IdKeys.of(curriculumId);
         this.curriculumName = curriculumName;
         this.departmentName = departmentName;
     }
@@ -55,6 +62,11 @@ public class SubjectStructure extends BaseModel {
         return -1; // Subject not found in this curriculum
     }
     
+    // Get the semester of the required subject at the given position
+    int getSemesterAt(int index) {
+        return semesters.get(index);
+    }
+    
     // Getters and Setters
     public String getCurriculumId() {
         return curriculumId;
@@ -62,6 +74,11 @@ public class SubjectStructure extends BaseModel {
 
     public void setCurriculumId(String curriculumId) {
         this.curriculumId = curriculumId;
+        this.curriculumKey = IdKeys.of(curriculumId);
+    }
+    
+    int getCurriculumKey() {
+        return curriculumKey;
     }
 
     public String getCurriculumName() {
@@ -84,4 +101,10 @@ public class SubjectStructure extends BaseModel {
     public String toString() {
         return curriculumId + ": " + curriculumName + " (" + departmentName + ")";
     }
+    
+    // Restore the cached key after deserialization
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        curriculumKey = IdKeys.of(curriculumId);
+    }
 }
\ No newline at end of file
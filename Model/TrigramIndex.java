@@ -0,0 +1,205 @@
+package Model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Inverted index from the three-character substrings of each student's ID and full name to the
+ * list positions of the students containing them. A search intersects the posting lists of the
+ * query's trigrams, so its cost follows the number of candidates rather than the number of students.
+ * The first one and two characters of every word are indexed as well, so a query word shorter than
+ * a trigram matches the words starting with it instead of scanning every student.
+ * Positions are the student's index in the student list; the index is kept up to date as students
+ * are added or replaced there.
+ */
+class TrigramIndex {
+    private static final int GRAM = 3;
+    // Prefix grams keep their length above the 48 bits used by the characters of a trigram
+    private static final int PREFIX_SHIFT = 48;
+
+    // Lowercase "id full name" for each position, used to verify candidates and rank them
+    private final List<String> texts = new ArrayList<>();
+    // Packed trigram or word prefix -> ascending positions of the texts containing it
+    private final LongObjectMap<IntList> postings = new LongObjectMap<>();
+
+    // Index all students, replacing what was indexed before
+    void rebuild(List<Student> students) {
+        texts.clear();
+        postings.clear();
+        for (int i = 0; i < students.size(); i++) {
+            set(i, students.get(i));
+        }
+    }
+
+    // Index the student at a position, either appended to the list or replacing another student
+    void set(int position, Student student) {
+        String text = textOf(student);
+        if (position < texts.size()) {
+            String previous = texts.get(position);
+            if (previous.equals(text)) {
+                return;
+            }
+            for (long gram : gramsOf(previous)) {
+                IntList positions = postings.get(gram);
+                if (positions != null) {
+                    positions.removeSorted(position);
+                }
+            }
+            texts.set(position, text);
+        } else if (position == texts.size()) {
+            texts.add(text);
+        } else {
+            throw new IndexOutOfBoundsException("Position: " + position + ", size: " + texts.size());
+        }
+
+        for (long gram : gramsOf(text)) {
+            IntList positions = postings.get(gram);
+            if (positions == null) {
+                positions = new IntList();
+                postings.put(gram, positions);
+            }
+            positions.addSorted(position);
+        }
+    }
+
+    // Positions of the texts containing every word, in ascending order; a word shorter than
+    // a trigram must start a word of the text. Words must be lowercase and non-empty, as returned by wordsOf.
+    int[] search(String[] words) {
+        List<IntList> lists = new ArrayList<>();
+        for (String word : words) {
+            long[] grams = word.length() < GRAM ? new long[] {prefixOf(word, 0, word.length())} : trigramsOf(word);
+            for (long gram : grams) {
+                IntList positions = postings.get(gram);
+                if (positions == null || positions.size() == 0) {
+                    return new int[0];
+                }
+                lists.add(positions);
+            }
+        }
+        if (lists.isEmpty()) {
+            return new int[0];
+        }
+
+        // Walk the shortest list and look the candidates up in the others
+        lists.sort((a, b) -> Integer.compare(a.size(), b.size()));
+        IntList shortest = lists.get(0);
+        IntList matches = new IntList();
+        for (int i = 0; i < shortest.size(); i++) {
+            int position = shortest.get(i);
+            if (inAll(lists, position) && containsAll(texts.get(position), words)) {
+                matches.add(position);
+            }
+        }
+        return matches.toArray();
+    }
+
+    // Relevance of a match, lower is better: per word an exact ID scores 0,
+    // a match at the start of a word 1 and one inside a word 2
+    int rank(int position, String[] words) {
+        String text = texts.get(position);
+        int idLength = text.indexOf(' ');
+        int rank = 0;
+        for (String word : words) {
+            if (word.length() == idLength && text.startsWith(word)) {
+                continue;
+            }
+            rank += startsWord(text, word) ? 1 : 2;
+        }
+        return rank;
+    }
+
+    // Split a query into lowercase words
+    static String[] wordsOf(String query) {
+        if (query == null) {
+            return new String[0];
+        }
+        String trimmed = query.trim().toLowerCase(Locale.ROOT);
+        return trimmed.isEmpty() ? new String[0] : trimmed.split("\\s+");
+    }
+
+    private static String textOf(Student student) {
+        return (student.getStudentId() + " " + student.getFullName()).toLowerCase(Locale.ROOT);
+    }
+
+    // Distinct grams indexed for a text: its trigrams and the one- and two-character prefixes of its words
+    private static long[] gramsOf(String text) {
+        long[] trigrams = trigramsOf(text);
+        // Room for two prefixes per word; with the spaces between them there are at most (length + 1) / 2 words
+        long[] grams = Arrays.copyOf(trigrams, trigrams.length + text.length() + 1);
+        int size = trigrams.length;
+        for (int i = 0; i < text.length(); i++) {
+            if (text.charAt(i) != ' ' && (i == 0 || text.charAt(i - 1) == ' ')) {
+                grams[size++] = prefixOf(text, i, 1);
+                if (i + 1 < text.length() && text.charAt(i + 1) != ' ') {
+                    grams[size++] = prefixOf(text, i, 2);
+                }
+            }
+        }
+        return distinct(grams, size);
+    }
+
+    // Packed gram for the one or two characters starting a word at the given index
+    private static long prefixOf(String text, int start, int length) {
+        long gram = (long) length << PREFIX_SHIFT | (long) text.charAt(start) << 16;
+        return length == 2 ? gram | text.charAt(start + 1) : gram;
+    }
+
+    // Distinct packed trigrams of a text, leaving out those spanning a space
+    private static long[] trigramsOf(String text) {
+        int count = Math.max(0, text.length() - GRAM + 1);
+        long[] grams = new long[count];
+        int size = 0;
+        for (int i = 0; i < count; i++) {
+            char a = text.charAt(i);
+            char b = text.charAt(i + 1);
+            char c = text.charAt(i + 2);
+            if (a != ' ' && b != ' ' && c != ' ') {
+                grams[size++] = ((long) a << 32) | ((long) b << 16) | c;
+            }
+        }
+
+        return distinct(grams, size);
+    }
+
+    // Sort the first size grams and drop the repeated ones
+    private static long[] distinct(long[] grams, int size) {
+        Arrays.sort(grams, 0, size);
+        int distinct = 0;
+        for (int i = 0; i < size; i++) {
+            if (distinct == 0 || grams[i] != grams[distinct - 1]) {
+                grams[distinct++] = grams[i];
+            }
+        }
+        return Arrays.copyOf(grams, distinct);
+    }
+
+    private static boolean inAll(List<IntList> lists, int position) {
+        for (int i = 1; i < lists.size(); i++) {
+            if (!lists.get(i).containsSorted(position)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Trigrams only show that the parts of a word occur, not that they are adjacent
+    private static boolean containsAll(String text, String[] words) {
+        for (String word : words) {
+            if (!text.contains(word)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean startsWord(String text, String word) {
+        for (int i = text.indexOf(word); i >= 0; i = text.indexOf(word, i + 1)) {
+            if (i == 0 || text.charAt(i - 1) == ' ') {
+                return true;
+            }
+        }
+        return false;
+    }
+}
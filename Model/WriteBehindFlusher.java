@@ -0,0 +1,238 @@
+package Model;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Background thread that coalesces persistence requests into group commits.
+ * A failed write is retried a few times; if it keeps failing, the requests it covered are
+ * reported as failed to their waiters and stay pending until a later write succeeds.
+ * Once the thread has stopped, requests and waiters write on their own thread instead.
+ */
+class WriteBehindFlusher {
+    // Attempts per batch and the pause before the first retry, doubled for each further one
+    private static final int MAX_ATTEMPTS = 3;
+    private static final long RETRY_DELAY_MS = 100;
+
+    // Writes everything pending, throwing if it could not
+    interface FlushAction {
+        void run() throws IOException;
+    }
+
+    private final FlushAction flushAction;
+    private final long latencyMillis;
+    private final BlockingQueue<Long> queue;
+    private final Thread thread;
+    private volatile boolean running = true;
+
+    // Sequence numbers of the last request handed out and the last one made durable
+    private final Object sequenceLock = new Object();
+    private long requestedSeq;
+    private long durableSeq;
+    // Last request whose write failed and the error, cleared by a later successful write
+    private long failedSeq;
+    private IOException failure;
+
+    WriteBehindFlusher(FlushAction flushAction, long latencyMillis, int queueCapacity) {
+        this.flushAction = flushAction;
+        this.latencyMillis = latencyMillis;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+
+        thread = new Thread(this::run, "DataManager-flusher");
+        thread.setDaemon(true);
+        thread.start();
+
+        // Drain pending writes when the JVM exits
+        Runtime.getRuntime().addShutdownHook(new Thread(this::shutdown, "DataManager-shutdown-flush"));
+    }
+
+    // Enqueue a flush request, blocking while the queue is full
+    long request() {
+        long seq;
+        synchronized (sequenceLock) {
+            seq = ++requestedSeq;
+        }
+
+        boolean queued = false;
+        boolean interrupted = false;
+        while (!queued && running && thread.isAlive()) {
+            try {
+                queued = queue.offer(seq, 100, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+
+        // After shutdown there is no flusher left, and one that stopped while this request was
+        // being queued may have missed it, so write on the caller's thread
+        if (!running || !thread.isAlive()) {
+            flushOnCallerThread();
+        }
+        return seq;
+    }
+
+    // Request a flush and wait until it has been written, throwing UncheckedIOException if it failed
+    void flush() {
+        awaitDurable(request());
+    }
+
+    // Wait until every request made so far has been written
+    void awaitDurable() {
+        long seq;
+        synchronized (sequenceLock) {
+            seq = requestedSeq;
+        }
+        awaitDurable(seq);
+    }
+
+    // Wait until the given request has been written, throwing UncheckedIOException if writing it failed
+    // or if the wait was interrupted before the outcome was known
+    void awaitDurable(long seq) {
+        if (Thread.currentThread() == thread) {
+            return; // Called from within a flush, waiting would deadlock
+        }
+
+        while (true) {
+            synchronized (sequenceLock) {
+                if (durableSeq >= seq) {
+                    return;
+                }
+                if (failedSeq >= seq) {
+                    throw new UncheckedIOException("Changes could not be written", failure);
+                }
+                if (thread.isAlive()) {
+                    try {
+                        sequenceLock.wait(100);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new UncheckedIOException("Interrupted before the changes were known to be written",
+                                new InterruptedIOException());
+                    }
+                    continue;
+                }
+            }
+            // The flusher has stopped and will not write this request any more
+            flushOnCallerThread();
+        }
+    }
+
+    // Stop accepting work and write everything still pending
+    void shutdown() {
+        running = false;
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // Write everything pending on the caller's thread, covering every request handed out so far
+    private void flushOnCallerThread() {
+        long seq;
+        synchronized (sequenceLock) {
+            seq = requestedSeq;
+        }
+        try {
+            flushAction.run();
+            markDurable(seq);
+        } catch (IOException | RuntimeException e) {
+            markFailed(seq, e);
+        }
+    }
+
+    // Record that every request up to the given sequence has been written
+    private void markDurable(long seq) {
+        synchronized (sequenceLock) {
+            durableSeq = Math.max(durableSeq, seq);
+            if (failedSeq <= durableSeq) {
+                failure = null; // A write covers everything changed before it, including what failed
+            }
+            sequenceLock.notifyAll();
+        }
+    }
+
+    // Record that writing the requests up to the given sequence failed
+    private void markFailed(long seq, Exception e) {
+        System.err.println("Error flushing data: " + e.getMessage());
+        synchronized (sequenceLock) {
+            failedSeq = Math.max(failedSeq, seq);
+            failure = e instanceof IOException ? (IOException) e : new IOException(e);
+            sequenceLock.notifyAll();
+        }
+    }
+
+    // Run the flush action, retrying with a growing pause while it fails.
+    // Returns the last error, or null once it succeeded; an interrupt stops the retries and the thread.
+    private Exception flushWithRetries() {
+        Exception error = null;
+        for (int attempt = 0; attempt < MAX_ATTEMPTS; attempt++) {
+            if (attempt > 0) {
+                try {
+                    Thread.sleep(RETRY_DELAY_MS << (attempt - 1));
+                } catch (InterruptedException e) {
+                    running = false;
+                    return error;
+                }
+            }
+            try {
+                flushAction.run();
+                return null;
+            } catch (IOException | RuntimeException e) {
+                error = e;
+            }
+        }
+        return error;
+    }
+
+    // Flusher loop: wait for a request, let the burst collect, then write once.
+    // An interrupt stops the loop once the requests already queued have been written.
+    private void run() {
+        List<Long> batch = new ArrayList<>();
+
+        while (running || !queue.isEmpty()) {
+            Long first;
+            try {
+                first = queue.poll(100, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                running = false;
+                continue;
+            }
+            if (first == null) {
+                continue;
+            }
+
+            if (running && latencyMillis > 0) {
+                try {
+                    Thread.sleep(latencyMillis);
+                } catch (InterruptedException e) {
+                    running = false;
+                }
+            }
+
+            batch.clear();
+            batch.add(first);
+            queue.drainTo(batch);
+
+            long last = 0;
+            for (long seq : batch) {
+                last = Math.max(last, seq);
+            }
+
+            Exception error = flushWithRetries();
+            if (error == null) {
+                markDurable(last);
+            } else {
+                markFailed(last, error);
+            }
+        }
+    }
+}
@@ -2,32 +2,51 @@ package View;
 
 import Controller.AdminController;
 import Controller.AuthController;
-import Model.Student;
+import Model.StudentSort;
 
 import javax.swing.*;
-import javax.swing.table.DefaultTableModel;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
 import java.awt.*;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
-import java.util.List;
 
 /**
  * Admin view for displaying and managing the list of students
  */
 public class AdminStudentListView extends JFrame {
+    // How long typing must pause before the search runs. Indexed searches take a few milliseconds,
+    // so a short pause still shows results within about 50 ms of the last keystroke.
+    private static final int SEARCH_DELAY_MS = Integer.getInteger("srs.searchDelayMs", 40);
+    // Entries of the sort combo box, with the order and direction each one stands for
+    private static final String[] SORT_LABELS = {
+        "Name (A-Z)", "Name (Z-A)", "Age (youngest first)", "Age (oldest first)", "School, then name"
+    };
+    private static final StudentSort[] SORTS = {
+        StudentSort.NAME, StudentSort.NAME, StudentSort.AGE, StudentSort.AGE, StudentSort.SCHOOL_NAME
+    };
+    private static final boolean[] DESCENDING = {false, true, false, true, false};
+    
     private AdminController adminController;
     private AuthController authController;
     
     private JTable studentsTable;
-    private DefaultTableModel tableModel;
+    private StudentTableModel tableModel;
     private JTextField searchField;
     private JComboBox<String> schoolFilter;
     private JComboBox<String> sortOptions;
     private JButton viewProfileButton;
     private JButton subjectsButton;
     private JButton logoutButton;
+    private BackgroundRunner backgroundRunner;
+    private Timer searchTimer;
     
     public AdminStudentListView() {
+        this(SEARCH_DELAY_MS);
+    }
+    
+    // Create the view with the given pause in typing before a search runs
+    public AdminStudentListView(int searchDelayMs) {
         this.adminController = new AdminController();
         this.authController = new AuthController();
         
@@ -67,18 +86,43 @@ public class AdminStudentListView extends JFrame {
                 loadStudents();
             }
         });
+        searchField.addActionListener(new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                loadStudents();
+            }
+        });
+        
+        // Search as the admin types, once typing pauses; each edit restarts the wait
+        searchTimer = new Timer(searchDelayMs, new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                loadStudents();
+            }
+        });
+        searchTimer.setRepeats(false);
+        searchField.getDocument().addDocumentListener(new DocumentListener() {
+            @Override
+            public void insertUpdate(DocumentEvent e) {
+                searchTimer.restart();
+            }
+            
+            @Override
+            public void removeUpdate(DocumentEvent e) {
+                searchTimer.restart();
+            }
+            
+            @Override
+            public void changedUpdate(DocumentEvent e) {
+                // Attribute changes do not change the text
+            }
+        });
         
         // School filter
         JLabel schoolLabel = new JLabel("School:");
         schoolFilter = new JComboBox<>();
         schoolFilter.addItem("All Schools");
         
-        // Add available schools to the filter
-        List<String> schools = adminController.getAllSchools();
-        for (String school : schools) {
-            schoolFilter.addItem(school);
-        }
-        
         schoolFilter.addActionListener(new ActionListener() {
             @Override
             public void actionPerformed(ActionEvent e) {
@@ -88,7 +132,7 @@ public class AdminStudentListView extends JFrame {
         
         // Sort options
         JLabel sortLabel = new JLabel("Sort by:");
-        sortOptions = new JComboBox<>(new String[]{"Name", "Age"});
+        sortOptions = new JComboBox<>(SORT_LABELS);
         sortOptions.addActionListener(new ActionListener() {
             @Override
             public void actionPerformed(ActionEvent e) {
@@ -107,19 +151,18 @@ public class AdminStudentListView extends JFrame {
         filterPanel.add(sortLabel);
         filterPanel.add(sortOptions);
         
+        // Queries run in the background; the filters stay enabled so a new query can replace a running one
+        backgroundRunner = new BackgroundRunner(this);
+        filterPanel.add(Box.createHorizontalStrut(20));
+        filterPanel.add(backgroundRunner.getProgressBar());
+        
         // Table panel
         JPanel tablePanel = new JPanel();
         tablePanel.setLayout(new BorderLayout());
         tablePanel.setBorder(BorderFactory.createTitledBorder("Students"));
         
-        // Create table model
-        String[] columnNames = {"Student ID", "Name", "Age", "School", "Curriculum"};
-        tableModel = new DefaultTableModel(columnNames, 0) {
-            @Override
-            public boolean isCellEditable(int row, int column) {
-                return false; // Make cells non-editable
-            }
-        };
+        // Create table model; rows are fetched in the background a page at a time as they are shown
+        tableModel = new StudentTableModel(backgroundRunner);
         
         // Create table
         studentsTable = new JTable(tableModel);
@@ -169,61 +212,34 @@ public class AdminStudentListView extends JFrame {
         // Set the content pane
         setContentPane(mainPanel);
         
-        // Load students
+        // Add available schools to the filter and load students
+        backgroundRunner.run(adminController::getAllSchools, schools -> {
+            for (String school : schools) {
+                schoolFilter.addItem(school);
+            }
+        });
         loadStudents();
     }
     
     // Load students into the table based on filters and sort options
     private void loadStudents() {
-        // Clear existing data
-        tableModel.setRowCount(0);
-        
-        // Get students based on search and filter
-        List<Student> students;
-        
+        searchTimer.stop(); // A search started directly replaces a pending one
         String searchQuery = searchField.getText().trim();
         String selectedSchool = (String) schoolFilter.getSelectedItem();
-        
-        if (selectedSchool != null && !selectedSchool.equals("All Schools")) {
-            // Filter by school
-            students = adminController.getStudentsBySchool(selectedSchool);
-            
-            // Apply search within school filter
-            if (!searchQuery.isEmpty()) {
-                students = adminController.searchStudents(searchQuery);
-            }
-        } else {
-            // No school filter, just search
-            if (!searchQuery.isEmpty()) {
-                students = adminController.searchStudents(searchQuery);
-            } else {
-                // No filters at all
-                students = adminController.getAllStudents();
-            }
+        if (selectedSchool != null && selectedSchool.equals("All Schools")) {
+            selectedSchool = null;
         }
         
-        // Sort students
-        String sortBy = (String) sortOptions.getSelectedItem();
-        if (sortBy != null) {
-            if (sortBy.equals("Name")) {
-                students = adminController.sortStudentsByName(students);
-            } else if (sortBy.equals("Age")) {
-                students = adminController.sortStudentsByAge(students);
-            }
-        }
+        int sortIndex = Math.max(0, sortOptions.getSelectedIndex());
+        StudentSort sort = SORTS[sortIndex];
+        boolean descending = DESCENDING[sortIndex];
         
-        // Add each student to the table
-        for (Student student : students) {
-            Object[] rowData = {
-                student.getStudentId(),
-                student.getFullName(),
-                student.getAge(),
-                student.getSchool(),
-                student.getCurriculumId()
-            };
-            
-            tableModel.addRow(rowData);
-        }
+        // Only the matching positions are fetched now, the students are read as rows become visible.
+        // A query still waiting for earlier filters or text is cancelled, and the result of one
+        // already running is dropped, so the table always shows the newest query.
+        String school = selectedSchool;
+        backgroundRunner.runLatest(() -> adminController.queryStudents(school, searchQuery, sort, descending),
+                tableModel::setCursor);
     }
     
     // View the profile of the selected student
@@ -239,6 +255,9 @@ public class AdminStudentListView extends JFrame {
         }
         
         String studentId = (String) tableModel.getValueAt(selectedRow, 0);
+        if (studentId == null) {
+            return; // Row not fetched yet
+        }
         
         SwingUtilities.invokeLater(() -> {
             new StudentProfileView(studentId).setVisible(true);
@@ -0,0 +1,135 @@
+package View;
+
+import javax.swing.*;
+import java.awt.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+/**
+ * Runs a view's data operations off the event dispatch thread with SwingWorker and hands
+ * the results back on it. Tasks of one view run one at a time in the order they were started.
+ * While any task is running the window shows a wait cursor and a progress bar, and the given
+ * controls are disabled.
+ */
+public class BackgroundRunner {
+    // The worker thread stops after being idle this long, so closed views leave nothing running
+    private static final long KEEP_ALIVE_SECONDS = 30;
+    
+    private final RootPaneContainer window;
+    private final JComponent[] controls;
+    private final JProgressBar progressBar = new JProgressBar();
+    private final ThreadPoolExecutor executor;
+    
+    // Only used on the event dispatch thread
+    private int running;
+    private SwingWorker<?, ?> latest;
+    
+    public BackgroundRunner(RootPaneContainer window, JComponent... controls) {
+        this.window = window;
+        this.controls = controls;
+        progressBar.setIndeterminate(true);
+        progressBar.setVisible(false);
+        
+        executor = new ThreadPoolExecutor(1, 1, KEEP_ALIVE_SECONDS, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), runnable -> {
+                    Thread thread = new Thread(runnable, "View-background");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        executor.allowCoreThreadTimeOut(true);
+    }
+    
+    // Progress bar shown while tasks are running, for the view to place in its layout
+    public JProgressBar getProgressBar() {
+        return progressBar;
+    }
+    
+    // Run work in the background and pass its result to onSuccess on the event dispatch thread.
+    // Errors are reported in a dialog.
+    public <T> void run(Callable<T> work, Consumer<T> onSuccess) {
+        run(work, onSuccess, this::showError);
+    }
+    
+    // Run work in the background, passing its result to onSuccess or its error to onError
+    public <T> void run(Callable<T> work, Consumer<T> onSuccess, Consumer<Exception> onError) {
+        submit(work, onSuccess, onError);
+    }
+    
+    // Like run, but first cancels the previous task started with runLatest, so that only the
+    // result of the newest request is shown, e.g. when filters change while a query is running.
+    // A cancelled task that already started still finishes and keeps the view busy until then,
+    // but its result is dropped.
+    public <T> void runLatest(Callable<T> work, Consumer<T> onSuccess) {
+        if (latest != null) {
+            latest.cancel(false);
+        }
+        latest = submit(work, onSuccess, this::showError);
+    }
+    
+    private <T> SwingWorker<T, Void> submit(Callable<T> work, Consumer<T> onSuccess, Consumer<Exception> onError) {
+        // Set once the task either starts its work or is cancelled before starting, so that
+        // exactly one of them ends the busy state
+        AtomicBoolean claimed = new AtomicBoolean();
+        SwingWorker<T, Void> worker = new SwingWorker<T, Void>() {
+            @Override
+            protected T doInBackground() throws Exception {
+                if (!claimed.compareAndSet(false, true)) {
+                    return null; // Cancelled before it started
+                }
+                try {
+                    return work.call();
+                } finally {
+                    // done() runs as soon as a task is cancelled, so the busy state ends here instead
+                    SwingUtilities.invokeLater(() -> setBusy(-1));
+                }
+            }
+            
+            @Override
+            protected void done() {
+                if (isCancelled()) {
+                    if (claimed.compareAndSet(false, true)) {
+                        setBusy(-1); // Never started, nothing else will end the busy state
+                    }
+                    return; // Superseded by a newer request
+                }
+                
+                T result;
+                try {
+                    result = get();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                } catch (ExecutionException e) {
+                    Throwable cause = e.getCause();
+                    onError.accept(cause instanceof Exception ? (Exception) cause : new ExecutionException(cause));
+                    return;
+                }
+                onSuccess.accept(result);
+            }
+        };
+        
+        setBusy(1);
+        executor.execute(worker);
+        return worker;
+    }
+    
+    // Count running tasks and show the busy state while there are any
+    private void setBusy(int change) {
+        running += change;
+        boolean busy = running > 0;
+        
+        progressBar.setVisible(busy);
+        window.getRootPane().setCursor(busy ? Cursor.getPredefinedCursor(Cursor.WAIT_CURSOR) : null);
+        for (JComponent control : controls) {
+            control.setEnabled(!busy);
+        }
+    }
+    
+    private void showError(Exception e) {
+        JOptionPane.showMessageDialog(window.getRootPane(),
+                "Error: " + e.getMessage(),
+                "Error",
+                JOptionPane.ERROR_MESSAGE);
+    }
+}
\ No newline at end of file
@@ -1,6 +1,7 @@
 package View;
 
 import Controller.AdminController;
+import Model.Grade;
 import Model.Student;
 
 import javax.swing.*;
@@ -8,7 +9,9 @@ import javax.swing.table.DefaultTableModel;
 import java.awt.*;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Admin view for managing grades for a specific subject
@@ -22,6 +25,7 @@ public class GradeManagementView extends JFrame {
     private DefaultTableModel tableModel;
     private JTable registrationsTable;
     private DefaultTableModel registrationsTableModel;
+    private BackgroundRunner backgroundRunner;
     
     public GradeManagementView(String subjectId, String subjectName) {
         this.adminController = new AdminController();
@@ -106,6 +110,10 @@ public class GradeManagementView extends JFrame {
             }
         });
         
+        // Loading and saving run in the background
+        backgroundRunner = new BackgroundRunner(this, viewRegistrationsButton, saveButton);
+        
+        buttonPanel.add(backgroundRunner.getProgressBar());
         buttonPanel.add(viewRegistrationsButton);
         buttonPanel.add(saveButton);
         buttonPanel.add(backButton);
@@ -124,33 +132,37 @@ public class GradeManagementView extends JFrame {
     
     // Load students into the table
     private void loadStudents() {
-        // Clear existing data
-        tableModel.setRowCount(0);
-        
         // Get students registered for this subject
-        List<Student> students = adminController.getStudentsForSubject(subjectId);
-        
-        // Add each student to the table
-        for (Student student : students) {
-            Object[] rowData = {
-                student.getStudentId(),
-                student.getFullName(),
-                ""  // Empty grade initially
-            };
+        backgroundRunner.run(() -> adminController.getStudentsForSubject(subjectId), students -> {
+            // Clear existing data
+            tableModel.setRowCount(0);
             
-            tableModel.addRow(rowData);
-        }
+            // Add each student to the table
+            for (Student student : students) {
+                Object[] rowData = {
+                    student.getStudentId(),
+                    student.getFullName(),
+                    ""  // Empty grade initially
+                };
+                
+                tableModel.addRow(rowData);
+            }
+        });
         
-        // Set the combo box as the editor for the grade column
+        // Set the combo box as the editor for the grade column, empty meaning not graded
+        String[] gradeCodes = new String[Grade.values().length];
+        for (Grade grade : Grade.values()) {
+            gradeCodes[grade.ordinal()] = grade.isGraded() ? grade.getCode() : "";
+        }
         studentsTable.getColumnModel().getColumn(2).setCellEditor(new DefaultCellEditor(
-            new JComboBox<>(new String[]{"", "A", "B+", "B", "C+", "C", "D+", "D", "F"})
+            new JComboBox<>(gradeCodes)
         ));
     }
     
     // Save grades for all students
     private void saveGrades() {
         int rowCount = tableModel.getRowCount();
-        boolean success = true;
+        Map<String, String> grades = new LinkedHashMap<>();
         
         for (int i = 0; i < rowCount; i++) {
             String studentId = (String) tableModel.getValueAt(i, 0);
@@ -161,18 +173,27 @@ public class GradeManagementView extends JFrame {
                 continue;
             }
             
-            try {
-                adminController.setGrade(studentId, subjectId, grade);
-            } catch (Exception e) {
-                success = false;
-                JOptionPane.showMessageDialog(this,
-                        "Error setting grade for student " + studentId + ": " + e.getMessage(),
-                        "Error",
-                        JOptionPane.ERROR_MESSAGE);
-            }
+            grades.put(studentId, grade);
         }
         
-        if (success) {
+        // Post all grades at once in the background and report every failure in one message
+        backgroundRunner.run(() -> adminController.setGrades(subjectId, grades),
+                errors -> gradesSaved(errors, grades.size()));
+    }
+    
+    // Report the outcome of saving grades
+    private void gradesSaved(Map<String, String> errors, int gradeCount) {
+        if (!errors.isEmpty()) {
+            StringBuilder message = new StringBuilder("Grades could not be saved for "
+                    + errors.size() + " of " + gradeCount + " students:");
+            for (Map.Entry<String, String> error : errors.entrySet()) {
+                message.append("\n  ").append(error.getKey()).append(": ").append(error.getValue());
+            }
+            JOptionPane.showMessageDialog(this,
+                    message.toString(),
+                    "Error",
+                    JOptionPane.ERROR_MESSAGE);
+        } else {
             JOptionPane.showMessageDialog(this,
                     "Grades saved successfully.",
                     "Success",
@@ -195,6 +216,13 @@ public class GradeManagementView extends JFrame {
         String studentId = (String) tableModel.getValueAt(selectedRow, 0);
         String studentName = (String) tableModel.getValueAt(selectedRow, 1);
         
+        // Get all registrations for this student in the background, then show them
+        backgroundRunner.run(() -> adminController.getRegisteredSubjectsWithDetailsForStudent(studentId),
+                registrations -> showStudentRegistrations(studentId, studentName, registrations));
+    }
+    
+    // Show a student's registrations in a dialog
+    private void showStudentRegistrations(String studentId, String studentName, List<Object[]> registrations) {
         // Create a new dialog to show registrations
         JDialog dialog = new JDialog(this, "Registrations for " + studentName, true);
         dialog.setSize(800, 400);
@@ -211,9 +239,6 @@ public class GradeManagementView extends JFrame {
         registrationsTable = new JTable(registrationsTableModel);
         JScrollPane regScrollPane = new JScrollPane(registrationsTable);
         
-        // Get all registrations for this student
-        List<Object[]> registrations = adminController.getRegisteredSubjectsWithDetailsForStudent(studentId);
-        
         // Add each registration to the table
         for (Object[] registration : registrations) {
             registrationsTableModel.addRow(registration);
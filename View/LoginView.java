@@ -15,6 +15,7 @@ public class LoginView extends JFrame {
     private JButton loginButton;
     private JLabel statusLabel;
     private AuthController authController;
+    private BackgroundRunner backgroundRunner;
     
     public LoginView() {
         authController = new AuthController();
@@ -62,6 +63,9 @@ public class LoginView extends JFrame {
             }
         });
         
+        // Authentication may wait for the data to finish loading, so it runs in the background
+        backgroundRunner = new BackgroundRunner(this, loginButton, emailField, passwordField);
+        
         // Add components to form panel
         formPanel.add(emailLabel);
         formPanel.add(emailField);
@@ -73,7 +77,11 @@ public class LoginView extends JFrame {
         // Add components to main panel
         mainPanel.add(titleLabel, BorderLayout.NORTH);
         mainPanel.add(formPanel, BorderLayout.CENTER);
-        mainPanel.add(statusLabel, BorderLayout.SOUTH);
+        
+        JPanel statusPanel = new JPanel(new BorderLayout());
+        statusPanel.add(statusLabel, BorderLayout.CENTER);
+        statusPanel.add(backgroundRunner.getProgressBar(), BorderLayout.SOUTH);
+        mainPanel.add(statusPanel, BorderLayout.SOUTH);
         
         // Set the content pane
         setContentPane(mainPanel);
@@ -92,8 +100,12 @@ public class LoginView extends JFrame {
             return;
         }
         
-        boolean success = authController.authenticate(email, password);
-        
+        statusLabel.setText("");
+        backgroundRunner.run(() -> authController.authenticate(email, password), this::loginFinished);
+    }
+    
+    // Open the next view once authentication has finished
+    private void loginFinished(boolean success) {
         if (success) {
             // Redirect to appropriate page based on user type
             if (authController.isAdmin()) {
@@ -5,7 +5,6 @@ import Controller.StudentController;
 import Model.RegisteredSubject;
 import Model.Student;
 import Model.Subject;
-import Model.SubjectStructure;
 
 import javax.swing.*;
 import javax.swing.table.DefaultTableModel;
@@ -13,6 +12,7 @@ import java.awt.*;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -28,11 +28,13 @@ public class StudentProfileView extends JFrame {
     private JLabel schoolLabel;
     private JLabel ageLabel;
     private JLabel curriculumLabel;
+    private JLabel birthDateLabel;
     private JTable subjectsTable;
     private DefaultTableModel tableModel;
     private JButton registerButton;
     private JButton logoutButton;
     private JButton backButton;
+    private BackgroundRunner backgroundRunner;
     
     public StudentProfileView(String studentId) {
         this.studentId = studentId;
@@ -65,17 +67,13 @@ public class StudentProfileView extends JFrame {
         profilePanel.setLayout(new GridLayout(6, 2, 10, 10));
         profilePanel.setBorder(BorderFactory.createTitledBorder("Student Information"));
         
-        // Student details
-        Student student = studentController.getStudentById(studentId);
-        SubjectStructure curriculum = studentController.getCurriculumForStudent(studentId);
-        
-        // Labels for student information
-        nameLabel = new JLabel("Name: " + student.getFullName());
-        idLabel = new JLabel("Student ID: " + student.getStudentId());
-        schoolLabel = new JLabel("School: " + student.getSchool());
-        ageLabel = new JLabel("Age: " + student.getAge() + " years");
-        curriculumLabel = new JLabel("Curriculum: " + 
-                (curriculum != null ? curriculum.getCurriculumName() : "N/A"));
+        // Labels for student information, filled in once the details are loaded
+        nameLabel = new JLabel("Name: ");
+        idLabel = new JLabel("Student ID: " + studentId);
+        schoolLabel = new JLabel("School: ");
+        ageLabel = new JLabel("Age: ");
+        curriculumLabel = new JLabel("Curriculum: ");
+        birthDateLabel = new JLabel("Birth Date: ");
         
         // Add information to profile panel
         profilePanel.add(nameLabel);
@@ -83,8 +81,7 @@ public class StudentProfileView extends JFrame {
         profilePanel.add(schoolLabel);
         profilePanel.add(ageLabel);
         profilePanel.add(curriculumLabel);
-        profilePanel.add(new JLabel("Birth Date: " + 
-                student.getBirthDate().format(DateTimeFormatter.ofPattern("dd/MM/yyyy"))));
+        profilePanel.add(birthDateLabel);
         
         // Button panel
         JPanel buttonPanel = new JPanel();
@@ -119,6 +116,10 @@ public class StudentProfileView extends JFrame {
             });
         }
         
+        // Details are loaded in the background
+        backgroundRunner = new BackgroundRunner(this, registerButton);
+        buttonPanel.add(backgroundRunner.getProgressBar());
+        
         // Add buttons in proper order
         if (studentController.isAdmin()) {
             buttonPanel.add(backButton);
@@ -154,19 +155,45 @@ public class StudentProfileView extends JFrame {
         // Set the content pane
         setContentPane(mainPanel);
         
-        // Load registered subjects
+        // Load the profile and registered subjects
+        backgroundRunner.run(() -> studentController.getStudentById(studentId), this::showStudent);
+        backgroundRunner.run(() -> studentController.getCurriculumForStudent(studentId), curriculum ->
+                curriculumLabel.setText("Curriculum: " + (curriculum != null ? curriculum.getCurriculumName() : "N/A")));
         loadRegisteredSubjects();
     }
     
+    // Show the student's details in the profile labels
+    private void showStudent(Student student) {
+        if (student == null) {
+            return;
+        }
+        nameLabel.setText("Name: " + student.getFullName());
+        idLabel.setText("Student ID: " + student.getStudentId());
+        schoolLabel.setText("School: " + student.getSchool());
+        ageLabel.setText("Age: " + student.getAge() + " years");
+        birthDateLabel.setText("Birth Date: " + 
+                student.getBirthDate().format(DateTimeFormatter.ofPattern("dd/MM/yyyy")));
+    }
+    
     // Load registered subjects into the table
     private void loadRegisteredSubjects() {
-        // Clear existing data
-        tableModel.setRowCount(0);
+        backgroundRunner.run(this::fetchRegisteredSubjectRows, rows -> {
+            // Replace existing data
+            tableModel.setRowCount(0);
+            for (Object[] rowData : rows) {
+                tableModel.addRow(rowData);
+            }
+        });
+    }
+    
+    // Get a table row for each registered subject, called in the background
+    private List<Object[]> fetchRegisteredSubjectRows() {
+        List<Object[]> rows = new ArrayList<>();
         
         // Get registered subjects
         List<RegisteredSubject> registrations = studentController.getRegisteredSubjects(studentId);
         
-        // Add each subject to the table
+        // Add each subject to the rows
         for (RegisteredSubject reg : registrations) {
             Subject subject = studentController.getSubjectDetails(reg.getSubjectId());
             
@@ -176,12 +203,13 @@ public class StudentProfileView extends JFrame {
                     subject.getSubjectName(),
                     subject.getCredits(),
                     subject.getInstructor(),
-                    reg.getGrade() != null ? reg.getGrade() : "Not graded"
+                    reg.getGradeValue().getDisplayName()
                 };
                 
-                tableModel.addRow(rowData);
+                rows.add(rowData);
             }
         }
+        return rows;
     }
     
     // Open registration view
@@ -0,0 +1,115 @@
+package View;
+
+import Model.Student;
+import Model.StudentCursor;
+
+import javax.swing.table.AbstractTableModel;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Table model showing the students of a query result, fetching pages in the background
+ * as rows become visible, together with the page after them. Rows show as empty until their
+ * page arrives. Only the most recently used pages are kept.
+ */
+public class StudentTableModel extends AbstractTableModel {
+    private static final long serialVersionUID = 6882332470883423942L;
+    private static final String[] COLUMN_NAMES = {"Student ID", "Name", "Age", "School", "Curriculum"};
+    private static final int PAGE_SIZE = 200;
+    private static final int CACHED_PAGES = 16;
+    
+    private final BackgroundRunner backgroundRunner;
+    private StudentCursor cursor;
+    
+    // Fetched pages by page number, least recently used first
+    private final Map<Integer, List<Student>> pages = new LinkedHashMap<Integer, List<Student>>(CACHED_PAGES, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer, List<Student>> eldest) {
+            return size() > CACHED_PAGES;
+        }
+    };
+    // Pages being fetched for the current cursor
+    private final Set<Integer> requested = new HashSet<>();
+    
+    public StudentTableModel(BackgroundRunner backgroundRunner) {
+        this.backgroundRunner = backgroundRunner;
+    }
+    
+    // Show the result of a new query
+    public void setCursor(StudentCursor cursor) {
+        this.cursor = cursor;
+        pages.clear();
+        requested.clear();
+        fireTableDataChanged();
+    }
+    
+    // Get the student shown in a row, or null until its page has been fetched
+    public Student getStudentAt(int row) {
+        int pageNumber = row / PAGE_SIZE;
+        List<Student> page = pages.get(pageNumber);
+        if (page == null) {
+            requestPage(pageNumber);
+        }
+        requestPage(pageNumber + 1); // Prefetch the rows the user is likely to scroll to next
+        return page == null ? null : page.get(row % PAGE_SIZE);
+    }
+    
+    // Fetch a page unless it is cached, being fetched or past the end. A page that failed to load
+    // is not requested again until the next query, so the error is shown only once.
+    private void requestPage(int pageNumber) {
+        int first = pageNumber * PAGE_SIZE;
+        if (first >= getRowCount() || pages.containsKey(pageNumber) || !requested.add(pageNumber)) {
+            return;
+        }
+        
+        StudentCursor pageCursor = cursor;
+        backgroundRunner.run(() -> pageCursor.getPage(first, PAGE_SIZE), page -> {
+            if (cursor != pageCursor) {
+                return; // Fetched for a previous query
+            }
+            requested.remove(pageNumber);
+            pages.put(pageNumber, page);
+            fireTableRowsUpdated(first, first + page.size() - 1);
+        });
+    }
+    
+    @Override
+    public int getRowCount() {
+        return cursor == null ? 0 : cursor.size();
+    }
+    
+    @Override
+    public int getColumnCount() {
+        return COLUMN_NAMES.length;
+    }
+    
+    @Override
+    public String getColumnName(int column) {
+        return COLUMN_NAMES[column];
+    }
+    
+    @Override
+    public Object getValueAt(int row, int column) {
+        Student student = getStudentAt(row);
+        if (student == null) {
+            return null;
+        }
+        switch (column) {
+            case 0:
+                return student.getStudentId();
+            case 1:
+                return student.getFullName();
+            case 2:
+                return student.getAge();
+            case 3:
+                return student.getSchool();
+            case 4:
+                return student.getCurriculumId();
+            default:
+                return null;
+        }
+    }
+}
\ No newline at end of file
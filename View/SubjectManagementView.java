@@ -8,6 +8,7 @@ import javax.swing.table.DefaultTableModel;
 import java.awt.*;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
+import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -20,6 +21,7 @@ public class SubjectManagementView extends JFrame {
     private DefaultTableModel tableModel;
     private JButton gradeButton;
     private JButton backButton;
+    private BackgroundRunner backgroundRunner;
     
     public SubjectManagementView() {
         this.adminController = new AdminController();
@@ -86,6 +88,10 @@ public class SubjectManagementView extends JFrame {
             }
         });
         
+        // Subjects are loaded in the background
+        backgroundRunner = new BackgroundRunner(this, gradeButton);
+        
+        buttonPanel.add(backgroundRunner.getProgressBar());
         buttonPanel.add(gradeButton);
         buttonPanel.add(backButton);
         
@@ -102,26 +108,40 @@ public class SubjectManagementView extends JFrame {
     
     // Load subjects into the table
     private void loadSubjects() {
-        // Clear existing data
-        tableModel.setRowCount(0);
+        backgroundRunner.run(this::fetchSubjectRows, rows -> {
+            // Replace existing data
+            tableModel.setRowCount(0);
+            for (Object[] rowData : rows) {
+                tableModel.addRow(rowData);
+            }
+        });
+    }
+    
+    // Get a table row for each subject, called in the background
+    private List<Object[]> fetchSubjectRows() {
+        List<Object[]> rows = new ArrayList<>();
         
         // Get all subjects
         List<Subject> subjects = adminController.getAllSubjects();
         
-        // Add each subject to the table
+        // Add each subject to the rows
         for (Subject subject : subjects) {
             int registeredCount = adminController.getRegistrationCountForSubject(subject.getSubjectId());
+            Object registered = subject.hasCapacityLimit()
+                ? registeredCount + " / " + subject.getCapacity()
+                : registeredCount;
             
             Object[] rowData = {
                 subject.getSubjectId(),
                 subject.getSubjectName(),
                 subject.getCredits(),
                 subject.getInstructor(),
-                registeredCount
+                registered
             };
             
-            tableModel.addRow(rowData);
+            rows.add(rowData);
         }
+        return rows;
     }
     
     // Open the grade management view for the selected subject
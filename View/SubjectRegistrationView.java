@@ -1,15 +1,18 @@
 package View;
 
 import Controller.StudentController;
+import Model.RegistrationResult;
 import Model.Subject;
-import Model.SubjectStructure;
 
 import javax.swing.*;
 import javax.swing.table.DefaultTableModel;
 import java.awt.*;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * View for subject registration
@@ -22,6 +25,7 @@ public class SubjectRegistrationView extends JFrame {
     private DefaultTableModel tableModel;
     private JButton registerButton;
     private JButton backButton;
+    private BackgroundRunner backgroundRunner;
     
     public SubjectRegistrationView(String studentId) {
         this.studentId = studentId;
@@ -54,6 +58,7 @@ public class SubjectRegistrationView extends JFrame {
         
         // Create table
         subjectsTable = new JTable(tableModel);
+        subjectsTable.setSelectionMode(ListSelectionModel.MULTIPLE_INTERVAL_SELECTION);
         JScrollPane scrollPane = new JScrollPane(subjectsTable);
         tablePanel.add(scrollPane, BorderLayout.CENTER);
         
@@ -62,11 +67,11 @@ public class SubjectRegistrationView extends JFrame {
         buttonPanel.setLayout(new FlowLayout(FlowLayout.RIGHT));
         
         // Register button
-        registerButton = new JButton("Register for Selected Subject");
+        registerButton = new JButton("Register for Selected Subjects");
         registerButton.addActionListener(new ActionListener() {
             @Override
             public void actionPerformed(ActionEvent e) {
-                registerSelectedSubject();
+                registerSelectedSubjects();
             }
         });
         
@@ -79,6 +84,10 @@ public class SubjectRegistrationView extends JFrame {
             }
         });
         
+        // Loading and registering run in the background
+        backgroundRunner = new BackgroundRunner(this, registerButton);
+        
+        buttonPanel.add(backgroundRunner.getProgressBar());
         buttonPanel.add(registerButton);
         buttonPanel.add(backButton);
         
@@ -86,14 +95,18 @@ public class SubjectRegistrationView extends JFrame {
         mainPanel.add(tablePanel, BorderLayout.CENTER);
         mainPanel.add(buttonPanel, BorderLayout.SOUTH);
         
-        // Curriculum information
-        SubjectStructure curriculum = studentController.getCurriculumForStudent(studentId);
-        if (curriculum != null) {
-            JLabel curriculumLabel = new JLabel("Curriculum: " + curriculum.getCurriculumName() + 
-                                               " (" + curriculum.getDepartmentName() + ")");
-            curriculumLabel.setBorder(BorderFactory.createEmptyBorder(0, 0, 10, 0));
-            mainPanel.add(curriculumLabel, BorderLayout.NORTH);
-        }
+        // Curriculum information, shown once it is loaded
+        JLabel curriculumLabel = new JLabel();
+        curriculumLabel.setBorder(BorderFactory.createEmptyBorder(0, 0, 10, 0));
+        curriculumLabel.setVisible(false);
+        mainPanel.add(curriculumLabel, BorderLayout.NORTH);
+        backgroundRunner.run(() -> studentController.getCurriculumForStudent(studentId), curriculum -> {
+            if (curriculum != null) {
+                curriculumLabel.setText("Curriculum: " + curriculum.getCurriculumName() + 
+                                        " (" + curriculum.getDepartmentName() + ")");
+                curriculumLabel.setVisible(true);
+            }
+        });
         
         // Set the content pane
         setContentPane(mainPanel);
@@ -104,13 +117,23 @@ public class SubjectRegistrationView extends JFrame {
     
     // Load available subjects into the table
     private void loadAvailableSubjects() {
-        // Clear existing data
-        tableModel.setRowCount(0);
+        backgroundRunner.run(this::fetchAvailableSubjectRows, rows -> {
+            // Replace existing data
+            tableModel.setRowCount(0);
+            for (Object[] rowData : rows) {
+                tableModel.addRow(rowData);
+            }
+        });
+    }
+    
+    // Get a table row for each available subject, called in the background
+    private List<Object[]> fetchAvailableSubjectRows() {
+        List<Object[]> rows = new ArrayList<>();
         
         // Get available subjects
         List<Subject> subjects = studentController.getAvailableSubjects(studentId);
         
-        // Add each subject to the table
+        // Add each subject to the rows
         for (Subject subject : subjects) {
             // Get prerequisite name if it exists
             String prerequisite = "None";
@@ -129,51 +152,94 @@ public class SubjectRegistrationView extends JFrame {
                 prerequisite
             };
             
-            tableModel.addRow(rowData);
+            rows.add(rowData);
         }
+        return rows;
     }
     
-    // Register for the selected subject
-    private void registerSelectedSubject() {
-        int selectedRow = subjectsTable.getSelectedRow();
+    // Register for all selected subjects at once
+    private void registerSelectedSubjects() {
+        int[] selectedRows = subjectsTable.getSelectedRows();
         
-        if (selectedRow == -1) {
+        if (selectedRows.length == 0) {
             JOptionPane.showMessageDialog(this,
-                    "Please select a subject to register.",
+                    "Please select one or more subjects to register.",
                     "No Selection",
                     JOptionPane.INFORMATION_MESSAGE);
             return;
         }
         
-        String subjectId = (String) tableModel.getValueAt(selectedRow, 0);
-        String subjectName = (String) tableModel.getValueAt(selectedRow, 1);
+        List<String> subjectIds = new ArrayList<>();
+        Map<String, String> subjectNames = new HashMap<>();
+        for (int row : selectedRows) {
+            String subjectId = (String) tableModel.getValueAt(row, 0);
+            subjectIds.add(subjectId);
+            subjectNames.put(subjectId, (String) tableModel.getValueAt(row, 1));
+        }
         
         // Confirm registration
+        String question = subjectIds.size() == 1
+                ? "Are you sure you want to register for " + subjectNames.get(subjectIds.get(0)) + "?"
+                : "Are you sure you want to register for these " + subjectIds.size() + " subjects?";
         int confirm = JOptionPane.showConfirmDialog(this,
-                "Are you sure you want to register for " + subjectName + "?",
+                question,
                 "Confirm Registration",
                 JOptionPane.YES_NO_OPTION);
         
         if (confirm == JOptionPane.YES_OPTION) {
-            boolean success = studentController.registerSubject(studentId, subjectId);
-            
-            if (success) {
-                JOptionPane.showMessageDialog(this,
-                        "Successfully registered for " + subjectName + ".",
-                        "Registration Successful",
-                        JOptionPane.INFORMATION_MESSAGE);
-                
-                // Refresh the available subjects
-                loadAvailableSubjects();
-                
-                // Return to student profile view
-                dispose();
+            backgroundRunner.run(() -> studentController.registerSubjects(studentId, subjectIds),
+                    results -> showRegistrationResults(results, subjectNames));
+        }
+    }
+    
+    // Report which subjects were registered and why the others were not
+    private void showRegistrationResults(Map<String, RegistrationResult> results, Map<String, String> subjectNames) {
+        StringBuilder registered = new StringBuilder();
+        StringBuilder failed = new StringBuilder();
+        for (Map.Entry<String, RegistrationResult> entry : results.entrySet()) {
+            String subjectName = subjectNames.get(entry.getKey());
+            if (entry.getValue() == RegistrationResult.SUCCESS) {
+                registered.append("\n  ").append(subjectName);
             } else {
-                JOptionPane.showMessageDialog(this,
-                        "Registration failed. Please check prerequisites.",
-                        "Registration Failed",
-                        JOptionPane.ERROR_MESSAGE);
+                failed.append("\n  ").append(subjectName).append(": ").append(describeFailure(entry.getValue()));
             }
         }
+        
+        if (failed.length() == 0) {
+            JOptionPane.showMessageDialog(this,
+                    "Successfully registered for:" + registered,
+                    "Registration Successful",
+                    JOptionPane.INFORMATION_MESSAGE);
+            
+            // Return to student profile view
+            dispose();
+        } else {
+            String message = registered.length() > 0
+                    ? "Registered for:" + registered + "\n\nCould not register for:" + failed
+                    : "Registration failed for:" + failed;
+            JOptionPane.showMessageDialog(this,
+                    message,
+                    "Registration Failed",
+                    registered.length() > 0 ? JOptionPane.WARNING_MESSAGE : JOptionPane.ERROR_MESSAGE);
+            
+            // Seats or registrations may have changed since the list was loaded
+            loadAvailableSubjects();
+        }
+    }
+    
+    // Explain why a registration was rejected
+    private String describeFailure(RegistrationResult result) {
+        switch (result) {
+            case NOT_FOUND:
+                return "The subject no longer exists.";
+            case PREREQUISITE_NOT_MET:
+                return "Please check prerequisites.";
+            case ALREADY_REGISTERED:
+                return "You are already registered for this subject.";
+            case FULL:
+                return "The subject is full.";
+            default:
+                return "";
+        }
     }
 }
\ No newline at end of file
@@ -0,0 +1,131 @@
+package util;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Utility class for reading and writing CSV lines.
+ * Fields may be quoted with double quotes; a quote inside a quoted field is doubled.
+ * A quoted field may contain line breaks, so one record can span several lines.
+ * Whitespace around a field is ignored, except inside quotes.
+ */
+public class Csv {
+    // Lines joined into one record at most, so a stray quote cannot swallow the rest of a file
+    public static final int MAX_RECORD_LINES = 100;
+    
+    // Read one record, joining lines while a quoted field is still open. Line breaks inside
+    // a field are read back as '\n'. Returns null at the end of the input.
+    // A field still open after MAX_RECORD_LINES lines ends the record; parseLine then reports it.
+    public static String readRecord(BufferedReader reader) throws IOException {
+        String line = reader.readLine();
+        if (line == null) {
+            return null;
+        }
+        
+        // Every quote opens or closes a field, a doubled quote does both, so an odd count leaves one open
+        int quotes = countQuotes(line);
+        if (quotes % 2 == 0) {
+            return line;
+        }
+        StringBuilder record = new StringBuilder(line);
+        for (int lines = 1; quotes % 2 != 0 && lines < MAX_RECORD_LINES && (line = reader.readLine()) != null; lines++) {
+            record.append('\n').append(line);
+            quotes += countQuotes(line);
+        }
+        return record.toString();
+    }
+    
+    private static int countQuotes(String line) {
+        int count = 0;
+        for (int i = 0; i < line.length(); i++) {
+            if (line.charAt(i) == '"') {
+                count++;
+            }
+        }
+        return count;
+    }
+    
+    // Split one record into its fields
+    public static String[] parseLine(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        int quotedEnd = -1; // Length of the field when its closing quote was read, -1 if it was not quoted
+        int lineNumber = 0; // Line of the record being read, counted from 0
+        int openedOnLine = 0;
+        
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (c == '\n') {
+                lineNumber++;
+            }
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                    quotedEnd = field.length();
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                if (quotedEnd < 0 && field.toString().trim().isEmpty()) {
+                    field.setLength(0); // Whitespace before the opening quote
+                }
+                quoted = true;
+                openedOnLine = lineNumber;
+            } else if (c == ',') {
+                fields.add(endField(field, quotedEnd));
+                field.setLength(0);
+                quotedEnd = -1;
+            } else {
+                field.append(c);
+            }
+        }
+        
+        if (quoted) {
+            throw new IllegalArgumentException(openedOnLine == 0 ? "Unterminated quoted field"
+                    : "Unterminated quoted field opened on line " + (openedOnLine + 1) + " of the record");
+        }
+        fields.add(endField(field, quotedEnd));
+        return fields.toArray(new String[0]);
+    }
+    
+    // Value of a field: an unquoted field is trimmed, a quoted one only loses the whitespace after its closing quote
+    private static String endField(StringBuilder field, int quotedEnd) {
+        if (quotedEnd < 0) {
+            return field.toString().trim();
+        }
+        int end = field.length();
+        while (end > quotedEnd && Character.isWhitespace(field.charAt(end - 1))) {
+            end--;
+        }
+        return field.substring(0, end);
+    }
+    
+    // Write one line, quoting the fields that need it; null is written as an empty field
+    public static void writeLine(Writer out, String... fields) throws IOException {
+        for (int i = 0; i < fields.length; i++) {
+            if (i > 0) {
+                out.write(',');
+            }
+            String field = fields[i];
+            if (field == null) {
+                continue;
+            }
+            
+            if (field.indexOf(',') < 0 && field.indexOf('"') < 0 && field.indexOf('\n') < 0 && field.indexOf('\r') < 0) {
+                out.write(field);
+            } else {
+                out.write('"');
+                out.write(field.replace("\"", "\"\""));
+                out.write('"');
+            }
+        }
+        out.write('\n');
+    }
+}
\ No newline at end of file
@@ -1,5 +1,7 @@
 package util;
 
+import Model.Grade;
+
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 
@@ -28,10 +30,8 @@ public class Formatter {
     
     // Format a grade for display (empty becomes "Not graded")
     public static String formatGrade(String grade) {
-        if (grade == null || grade.isEmpty()) {
-            return "Not graded";
-        }
-        return grade;
+        Grade value = Grade.fromCode(grade);
+        return value != null ? value.getDisplayName() : grade;
     }
     
     // Format a curriculum ID for display
@@ -6,15 +6,17 @@ import Model.Student;
  * Session manager for handling current user authentication state
  */
 public class SessionManager {
-    private static SessionManager instance;
-    private Student currentUser;
+    // Volatile so that a login on one thread is seen by workers on others
+    private volatile Student currentUser;
+    
+    // Created on first use; class initialization makes this thread-safe
+    private static class InstanceHolder {
+        static final SessionManager INSTANCE = new SessionManager();
+    }
     
     // Singleton pattern
     public static SessionManager getInstance() {
-        if (instance == null) {
-            instance = new SessionManager();
-        }
-        return instance;
+        return InstanceHolder.INSTANCE;
     }
     
     // Private constructor
@@ -48,6 +50,7 @@ public class SessionManager {
     
     // Check if the current user is an admin
     public boolean isAdmin() {
-        return isLoggedIn() && currentUser.isAdmin();
+        Student user = currentUser;
+        return user != null && user.isAdmin();
     }
 }
\ No newline at end of file